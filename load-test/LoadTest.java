@@ -0,0 +1,230 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load generator for the transfer and transaction history endpoints.
+ * Every simulated client runs on its own platform thread.
+ *
+ * <pre>
+ * java load-test/LoadTest.java [baseUrl] [scenario: transfer|transactions] [clients] [users] [durationSeconds]
+ * java load-test/LoadTest.java http://localhost:8080 transfer 2000 200 60
+ * </pre>
+ *
+ * Setup registers {@code users} fresh accounts, gives each of them two funded cards through the admin
+ * account from the seed data, and then lets {@code clients} concurrent clients share those accounts.
+ */
+public class LoadTest {
+
+    private static final String ADMIN_USERNAME = "vlad123";
+    private static final String ADMIN_PASSWORD = "q1w2e3";
+    private static final String PASSWORD = "load-test-password";
+    private static final Duration WARM_UP = Duration.ofSeconds(10);
+
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\":\"([^\"]+)\"");
+    private static final Pattern USER = Pattern.compile("\"id\":\"([^\"]+)\",\"username\":\"([^\"]+)\"");
+
+    private record Account(String token, String number, String targetNumber) {
+    }
+
+    private static HttpClient httpClient;
+    private static String baseUrl;
+
+    public static void main(String[] args) throws Exception {
+        baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String scenario = args.length > 1 ? args[1] : "transfer";
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        int users = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        Duration duration = Duration.ofSeconds(args.length > 4 ? Long.parseLong(args[4]) : 60);
+
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        List<Account> accounts = setUp(users);
+        System.out.printf("Prepared %d accounts, running '%s' with %d clients for %s%n",
+                accounts.size(), scenario, clients, duration);
+
+        run(scenario, clients, accounts, WARM_UP);
+        Result result = run(scenario, clients, accounts, duration);
+        result.print(duration);
+    }
+
+    private static List<Account> setUp(int users) throws Exception {
+        String adminToken = login(ADMIN_USERNAME, ADMIN_PASSWORD);
+        String prefix = "load_" + UUID.randomUUID().toString().substring(0, 8) + "_";
+
+        for (int i = 0; i < users; i++) {
+            send("POST", "/api/v1/auth/register", null, """
+                    {"firstName":"Load","lastName":"Test","username":"%s","password":"%s","confirmPassword":"%s"}"""
+                    .formatted(prefix + i, PASSWORD, PASSWORD), 201, 200);
+        }
+
+        Map<String, String> userIds = new HashMap<>();
+        for (int page = 0; userIds.size() < users; page++) {
+            String body = send("GET", "/api/v1/users?pageSize=500&page=" + page, adminToken, null, 200);
+            Matcher matcher = USER.matcher(body);
+            boolean found = false;
+            while (matcher.find()) {
+                found = true;
+                if (matcher.group(2).startsWith(prefix)) {
+                    userIds.put(matcher.group(2), matcher.group(1));
+                }
+            }
+            if (!found) {
+                throw new IllegalStateException("Registered users were not found in the user listing");
+            }
+        }
+
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            String username = prefix + i;
+            String number = addCard(adminToken, userIds.get(username));
+            String targetNumber = addCard(adminToken, userIds.get(username));
+            String token = login(username, PASSWORD);
+            send("POST", "/api/v1/transfer/recharge", token, """
+                    {"number":"%s","amount":1000000}""".formatted(number), 200);
+            send("POST", "/api/v1/transfer/recharge", token, """
+                    {"number":"%s","amount":1000000}""".formatted(targetNumber), 200);
+            accounts.add(new Account(token, number, targetNumber));
+        }
+        return accounts;
+    }
+
+    private static Result run(String scenario, int clients, List<Account> accounts, Duration duration) throws Exception {
+        Result result = new Result();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<long[]>> latencies = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                Account account = accounts.get(i % accounts.size());
+                latencies.add(executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    boolean forward = ThreadLocalRandom.current().nextBoolean();
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = scenario.equals("transactions")
+                                ? request("GET", "/api/v1/transaction/me?pageSize=20", account.token(), null)
+                                : request("POST", "/api/v1/transfer", account.token(), """
+                                        {"number":"%s","targetNumber":"%s","amount":5}"""
+                                        .formatted(forward ? account.number() : account.targetNumber(),
+                                                forward ? account.targetNumber() : account.number()));
+                        forward = !forward;
+
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                        result.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+            for (Future<long[]> future : latencies) {
+                result.latencies.add(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return result;
+    }
+
+    private static String addCard(String adminToken, String userId) throws Exception {
+        while (true) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String number = "%04d %04d %04d %04d".formatted(random.nextInt(10000), random.nextInt(10000),
+                    random.nextInt(10000), random.nextInt(10000));
+            HttpResponse<String> response = httpClient.send(request("POST", "/api/v1/cards", adminToken, """
+                    {"userId":"%s","number":"%s"}""".formatted(userId, number)), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200 || response.statusCode() == 201) {
+                return number;
+            }
+            if (!response.body().contains("already exists")) {
+                throw new IllegalStateException("Card creation failed: " + response.body());
+            }
+        }
+    }
+
+    private static String login(String username, String password) throws Exception {
+        String body = send("POST", "/api/v1/auth/login", null, """
+                {"username":"%s","password":"%s"}""".formatted(username, password), 200);
+        Matcher matcher = ACCESS_TOKEN.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No access token in " + body);
+        }
+        return matcher.group(1);
+    }
+
+    private static String send(String method, String path, String token, String body, int... expected) throws Exception {
+        HttpResponse<String> response = httpClient.send(request(method, path, token, body), HttpResponse.BodyHandlers.ofString());
+        for (int status : expected) {
+            if (response.statusCode() == status) {
+                return response.body();
+            }
+        }
+        throw new IllegalStateException(method + " " + path + " returned " + response.statusCode() + ": " + response.body());
+    }
+
+    private static HttpRequest request(String method, String path, String token, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static class Result {
+
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final List<long[]> latencies = new ArrayList<>();
+
+        void print(Duration duration) {
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            Map<Integer, Long> byStatus = new TreeMap<>();
+            statuses.forEach((status, count) -> byStatus.put(status, count.sum()));
+
+            System.out.printf("requests: %d, throughput: %.1f req/s%n", all.length, all.length / (double) duration.toSeconds());
+            System.out.printf("latency ms: p50 %.1f, p95 %.1f, p99 %.1f, max %.1f%n",
+                    percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), percentile(all, 1.0));
+            System.out.println("status codes (-1 = client error or timeout): " + byStatus);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
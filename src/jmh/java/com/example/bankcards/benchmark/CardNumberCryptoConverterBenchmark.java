@@ -0,0 +1,67 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.CardNumberCryptoConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+public class CardNumberCryptoConverterBenchmark {
+
+    private static final String NUMBER = "1111 2222 3333 4444";
+
+    private CardNumberCryptoConverter converter;
+    private LegacyCardNumberCryptoConverter legacyConverter;
+    private String encrypted;
+    private String legacyEncrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        converter = new CardNumberCryptoConverter("32882AYUGUUYDUYH", "AES/CBC/PKCS5Padding", 16, "AES", new SimpleMeterRegistry());
+        legacyConverter = new LegacyCardNumberCryptoConverter();
+        encrypted = converter.convertToDatabaseColumn(NUMBER);
+        legacyEncrypted = legacyConverter.convertToDatabaseColumn(NUMBER);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return converter.convertToDatabaseColumn(NUMBER);
+    }
+
+    @Benchmark
+    public String encryptLegacy() throws Exception {
+        return legacyConverter.convertToDatabaseColumn(NUMBER);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return converter.convertToEntityAttribute(encrypted);
+    }
+
+    @Benchmark
+    public String decryptLegacy() throws Exception {
+        return legacyConverter.convertToEntityAttribute(legacyEncrypted);
+    }
+
+    @Benchmark
+    public String roundTrip() {
+        return converter.convertToEntityAttribute(converter.convertToDatabaseColumn(NUMBER));
+    }
+}
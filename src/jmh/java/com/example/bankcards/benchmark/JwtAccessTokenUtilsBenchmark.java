@@ -0,0 +1,57 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.model.Role;
+import com.example.bankcards.model.User;
+import com.example.bankcards.util.JwtAccessTokenUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+public class JwtAccessTokenUtilsBenchmark {
+
+    private JwtAccessTokenUtils jwtAccessTokenUtils;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtAccessTokenUtils = new JwtAccessTokenUtils("984hg493gh0439rthr0429uruj2309yh937gc763fe87t3f89723gf",
+                Duration.ofMinutes(30), 10000);
+
+        user = User.builder()
+                .username("benchmark_user")
+                .build();
+        user.getRoles().add(new Role(1L, "ROLE_USER"));
+        user.getRoles().add(new Role(2L, "ROLE_ADMIN"));
+
+        token = jwtAccessTokenUtils.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtAccessTokenUtils.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String getUsername() {
+        return jwtAccessTokenUtils.getUsername(token);
+    }
+}
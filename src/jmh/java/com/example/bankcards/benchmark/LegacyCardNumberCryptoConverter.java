@@ -0,0 +1,62 @@
+package com.example.bankcards.benchmark;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * The converter as it was before ciphers were cached, kept as the baseline for
+ * {@link CardNumberCryptoConverterBenchmark}.
+ */
+class LegacyCardNumberCryptoConverter {
+
+    private static final String SECRET_KEY = "32882AYUGUUYDUYH";
+    private static final String ALGORITHM = "AES/CBC/PKCS5Padding";
+    private static final int IV_LENGTH = 16;
+    private static final String ENCRYPTION_ALGORITHM = "AES";
+    private static final String HASHING_ALGORITHM = "SHA-256";
+
+    private Cipher getCipher(int mode, byte[] ivBytes) throws Exception {
+        SecretKeySpec keySpec = new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), ENCRYPTION_ALGORITHM);
+        IvParameterSpec iv = new IvParameterSpec(ivBytes);
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        cipher.init(mode, keySpec, iv);
+        return cipher;
+    }
+
+    private byte[] generateDeterministicIv(String input) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance(HASHING_ALGORITHM);
+        byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+        byte[] iv = new byte[IV_LENGTH];
+        System.arraycopy(hash, 0, iv, 0, IV_LENGTH);
+        return iv;
+    }
+
+    String convertToDatabaseColumn(String attribute) throws Exception {
+        byte[] iv = generateDeterministicIv(attribute);
+        Cipher cipher = getCipher(Cipher.ENCRYPT_MODE, iv);
+        byte[] encrypted = cipher.doFinal(attribute.getBytes(StandardCharsets.UTF_8));
+
+        byte[] encryptedWithIv = ByteBuffer.allocate(iv.length + encrypted.length)
+                .put(iv)
+                .put(encrypted)
+                .array();
+        return Base64.getEncoder().encodeToString(encryptedWithIv);
+    }
+
+    String convertToEntityAttribute(String dbData) throws Exception {
+        byte[] encryptedIvAndText = Base64.getDecoder().decode(dbData);
+        ByteBuffer byteBuffer = ByteBuffer.wrap(encryptedIvAndText);
+        byte[] iv = new byte[IV_LENGTH];
+        byteBuffer.get(iv);
+        byte[] encrypted = new byte[byteBuffer.remaining()];
+        byteBuffer.get(encrypted);
+
+        Cipher cipher = getCipher(Cipher.DECRYPT_MODE, iv);
+        return new String(cipher.doFinal(encrypted), StandardCharsets.UTF_8);
+    }
+}
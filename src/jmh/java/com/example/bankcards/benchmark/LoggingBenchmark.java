@@ -0,0 +1,160 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.TestTaskEffectMobileApplication;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Throughput of GET /api/v1/cards/me through the security filter chain, the controller and the database, with
+ * the default profile (show-sql on) and the prod profile, each with logging on or off. Needs the PostgreSQL from
+ * docker-compose.yml and the seeded vlad123 account. Log events thrown away by the async appenders are reported
+ * as the droppedLogEvents secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+public class LoggingBenchmark {
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    @Param({"on", "off"})
+    private String logging;
+
+    private ConfigurableApplicationContext context;
+    private MeterRegistry meterRegistry;
+    private MockMvc mockMvc;
+    private Path logFile;
+    private String authorization;
+
+    @Setup
+    public void setUp() throws Exception {
+        logFile = Files.createTempFile("logging-benchmark", ".log");
+
+        // Passed as arguments so they override application.yaml
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--logging.file.name=" + logFile));
+        if (logging.equals("off")) {
+            args.add("--logging.level.root=OFF");
+            args.add("--spring.jpa.show-sql=false");
+        }
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(TestTaskEffectMobileApplication.class);
+        if (profile.equals("prod")) {
+            builder.profiles("prod");
+        }
+        context = builder.run(args.toArray(String[]::new));
+        meterRegistry = context.getBean(MeterRegistry.class);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+
+        String loginResponse = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"vlad123\",\"password\":\"q1w2e3\"}"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        authorization = "Bearer " + JsonPath.read(loginResponse, "$.accessToken");
+
+        int status = cardsOfCurrentUser();
+        if (status != HttpStatus.OK.value()) {
+            throw new IllegalStateException("GET /api/v1/cards/me answered " + status);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(logFile);
+    }
+
+    /**
+     * Events the async appenders lost during the iteration. Every thread gets its own counter and JMH sums
+     * them, so only the first thread reports the total.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class DroppedLogEvents {
+
+        public long droppedLogEvents;
+
+        private boolean reporting;
+        private long droppedBefore;
+
+        @Setup(Level.Iteration)
+        public void setUp(ThreadParams threadParams, LoggingBenchmark benchmark) {
+            reporting = threadParams.getThreadIndex() == 0;
+            droppedBefore = benchmark.droppedEvents();
+            droppedLogEvents = 0;
+        }
+
+        void update(LoggingBenchmark benchmark) {
+            if (reporting) {
+                droppedLogEvents = benchmark.droppedEvents() - droppedBefore;
+            }
+        }
+    }
+
+    @Benchmark
+    public int request(DroppedLogEvents droppedLogEvents) throws Exception {
+        int status = cardsOfCurrentUser();
+        droppedLogEvents.update(this);
+        return status;
+    }
+
+    private int cardsOfCurrentUser() throws Exception {
+        return mockMvc.perform(get("/api/v1/cards/me").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andReturn()
+                .getResponse()
+                .getStatus();
+    }
+
+    private long droppedEvents() {
+        return (long) meterRegistry.find("logging.async.dropped").functionCounters().stream()
+                .mapToDouble(FunctionCounter::count)
+                .sum();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.BlockRequestDto;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.LimitDto;
+import com.example.bankcards.dto.TransactionDto;
+import com.example.bankcards.dto.UserDto;
+import com.example.bankcards.model.BlockRequest;
+import com.example.bankcards.model.Card;
+import com.example.bankcards.model.Limit;
+import com.example.bankcards.model.Transaction;
+import com.example.bankcards.model.User;
+import com.example.bankcards.model.enums.BlockStatus;
+import com.example.bankcards.model.enums.CardStatus;
+import com.example.bankcards.model.enums.OperationResult;
+import com.example.bankcards.model.enums.OperationType;
+import com.example.bankcards.util.mapper.BlockRequestMapper;
+import com.example.bankcards.util.mapper.CardMapper;
+import com.example.bankcards.util.mapper.LimitMapper;
+import com.example.bankcards.util.mapper.TransactionMapper;
+import com.example.bankcards.util.mapper.UserMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapperBenchmark {
+
+    private static final int USER_CARDS = 5;
+
+    private final CardMapper cardMapper = Mappers.getMapper(CardMapper.class);
+    private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+    private final TransactionMapper transactionMapper = Mappers.getMapper(TransactionMapper.class);
+    private final LimitMapper limitMapper = Mappers.getMapper(LimitMapper.class);
+    private final BlockRequestMapper blockRequestMapper = Mappers.getMapper(BlockRequestMapper.class);
+
+    private User user;
+    private Card card;
+    private Transaction transaction;
+    private Limit limit;
+    private BlockRequest blockRequest;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .firstName("Benchmark")
+                .lastName("User")
+                .username("benchmark_user")
+                .isBan(false)
+                .build();
+
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < USER_CARDS; i++) {
+            cards.add(card(String.format("1111 2222 3333 %04d", i)));
+        }
+        user.setCards(cards);
+        card = cards.get(0);
+
+        transaction = Transaction.builder()
+                .id(UUID.randomUUID())
+                .amount(BigDecimal.TEN)
+                .operation(OperationType.TRANSFER)
+                .operationResult(OperationResult.SUCCESSFULLY)
+                .timestamp(LocalDateTime.now())
+                .card(card)
+                .targetCard(cards.get(1))
+                .build();
+
+        limit = Limit.builder()
+                .id(UUID.randomUUID())
+                .dailyLimit(BigDecimal.valueOf(300))
+                .monthlyLimit(BigDecimal.valueOf(3400))
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .card(card)
+                .build();
+
+        blockRequest = new BlockRequest(card, user);
+        blockRequest.setId(UUID.randomUUID());
+        blockRequest.setCreatedAt(LocalDateTime.now());
+        blockRequest.setUpdatedAt(LocalDateTime.now());
+        blockRequest.setStatus(BlockStatus.CREATED);
+    }
+
+    private Card card(String number) {
+        return Card.builder()
+                .id(UUID.randomUUID())
+                .number(number)
+                .balance(BigDecimal.valueOf(1000))
+                .status(CardStatus.ACTIVE)
+                .expirationDate(LocalDate.now().plusYears(4))
+                .user(user)
+                .build();
+    }
+
+    @Benchmark
+    public String maskNumber() {
+        return cardMapper.mapNumberFromCardToCardDto(card.getNumber());
+    }
+
+    @Benchmark
+    public CardDto cardToDto() {
+        return cardMapper.toDto(card);
+    }
+
+    @Benchmark
+    public UserDto userToDto() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public TransactionDto transactionToDto() {
+        return transactionMapper.toDto(transaction);
+    }
+
+    @Benchmark
+    public LimitDto limitToDto() {
+        return limitMapper.toDto(limit);
+    }
+
+    @Benchmark
+    public BlockRequestDto blockRequestToDto() {
+        return blockRequestMapper.toDto(blockRequest);
+    }
+}
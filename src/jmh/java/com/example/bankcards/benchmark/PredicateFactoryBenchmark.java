@@ -0,0 +1,125 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.FilterCardDto;
+import com.example.bankcards.dto.TransactionFilterDto;
+import com.example.bankcards.model.BlockRequest;
+import com.example.bankcards.model.Card;
+import com.example.bankcards.model.CardUsage;
+import com.example.bankcards.model.Limit;
+import com.example.bankcards.model.Role;
+import com.example.bankcards.model.Transaction;
+import com.example.bankcards.model.User;
+import com.example.bankcards.model.enums.OperationResult;
+import com.example.bankcards.model.enums.OperationType;
+import com.example.bankcards.util.CardNumberCryptoConverter;
+import com.example.bankcards.util.PredicateFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.cfg.ManagedBeanSettings;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.resource.beans.container.spi.BeanContainer;
+import org.hibernate.resource.beans.container.spi.ContainedBean;
+import org.hibernate.resource.beans.spi.BeanInstanceProducer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds predicates against a Hibernate SessionFactory that never opens a JDBC connection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PredicateFactoryBenchmark {
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder cb;
+    private Root<Transaction> transactionRoot;
+    private Root<Card> cardRoot;
+
+    private final TransactionFilterDto transactionFilterDto = new TransactionFilterDto(
+            BigDecimal.TEN, BigDecimal.valueOf(1000), OperationType.TRANSFER.name(), OperationResult.SUCCESSFULLY.name());
+    private final FilterCardDto filterCardDto = new FilterCardDto(
+            BigDecimal.ZERO, BigDecimal.valueOf(10000), LocalDate.now().plusYears(5), LocalDate.now());
+
+    @Setup
+    public void setUp() {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(JdbcSettings.DIALECT, PostgreSQLDialect.class.getName())
+                .applySetting(JdbcSettings.ALLOW_METADATA_ON_BOOT, false)
+                .applySetting(ManagedBeanSettings.BEAN_CONTAINER, new ConverterBeanContainer())
+                .build();
+
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClasses(User.class, Role.class, Card.class, Limit.class, CardUsage.class,
+                        Transaction.class, BlockRequest.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        cb = sessionFactory.getCriteriaBuilder();
+        transactionRoot = cb.createQuery(Transaction.class).from(Transaction.class);
+        cardRoot = cb.createQuery(Card.class).from(Card.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<Predicate> transactionPredicates() {
+        return PredicateFactory.formPredicates(cb, transactionRoot, transactionFilterDto,
+                OperationType.TRANSFER, OperationResult.SUCCESSFULLY);
+    }
+
+    @Benchmark
+    public List<Predicate> cardPredicates() {
+        return PredicateFactory.formPredicates(cb, cardRoot, filterCardDto);
+    }
+
+    private static class ConverterBeanContainer implements BeanContainer {
+
+        @Override
+        public <B> ContainedBean<B> getBean(Class<B> beanType, LifecycleOptions lifecycleOptions,
+                                            BeanInstanceProducer fallbackProducer) {
+            B bean = beanType == CardNumberCryptoConverter.class
+                    ? beanType.cast(new CardNumberCryptoConverter("32882AYUGUUYDUYH", "AES/CBC/PKCS5Padding", 16, "AES", new SimpleMeterRegistry()))
+                    : fallbackProducer.produceBeanInstance(beanType);
+            return () -> bean;
+        }
+
+        @Override
+        public <B> ContainedBean<B> getBean(String name, Class<B> beanType, LifecycleOptions lifecycleOptions,
+                                            BeanInstanceProducer fallbackProducer) {
+            B bean = fallbackProducer.produceBeanInstance(name, beanType);
+            return () -> bean;
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.bankcards.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import com.example.bankcards.util.MeteredAsyncAppender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Publishes the queue state and the lost events of every async appender attached to the root logger.
+ */
+@Component
+public class AsyncLoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext)) {
+            return;
+        }
+
+        Iterator<Appender<ILoggingEvent>> appenders = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (!(appenders.next() instanceof MeteredAsyncAppender appender)) {
+                continue;
+            }
+
+            FunctionCounter.builder("logging.async.dropped", appender, MeteredAsyncAppender::getDiscardedCount)
+                    .description("Log events thrown away by the async appender")
+                    .tag("appender", appender.getName())
+                    .tag("reason", "discarding-threshold")
+                    .register(meterRegistry);
+            FunctionCounter.builder("logging.async.dropped", appender, MeteredAsyncAppender::getDroppedCount)
+                    .description("Log events thrown away by the async appender")
+                    .tag("appender", appender.getName())
+                    .tag("reason", "queue-full")
+                    .register(meterRegistry);
+            Gauge.builder("logging.async.queue.remaining", appender, MeteredAsyncAppender::getRemainingCapacity)
+                    .description("Free slots in the async appender queue")
+                    .tag("appender", appender.getName())
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.repository.CardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks active cards past their expiration date as EXPIRED, in batches of one transaction each, so card
+ * operations only read the status. A batch skips cards locked by running operations; they are picked up by the
+ * next run, and until then operations reject them by the expiration date.
+ */
+@Component
+@Slf4j
+public class CardExpirySweep implements ApplicationRunner {
+
+    private final CardRepository cardRepository;
+    private final int batchSize;
+
+    public CardExpirySweep(CardRepository cardRepository,
+                           @Value("${card.expiry-sweep.batch-size}") int batchSize) {
+        this.cardRepository = cardRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        expireCards();
+    }
+
+    @Scheduled(cron = "${card.expiry-sweep.cron}")
+    public void expireCards() {
+        int expired = 0;
+        int batch;
+        try {
+            do {
+                batch = cardRepository.expireCards(batchSize).size();
+                expired += batch;
+            } while (batch == batchSize);
+        } catch (DataAccessException e) {
+            log.error("Expiry sweep stopped after {} cards", expired, e);
+            return;
+        }
+
+        if (expired > 0) {
+            log.info("{} cards were marked as expired", expired);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.model.Card;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.CardNumberMasker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills number_hash and masked_number for cards stored before the columns existed. Saving the card also
+ * re-encrypts its number with a random IV. Runs once all singletons exist and before the web server starts,
+ * so lookups by hash never see a half-filled table; changeset 019 makes both columns NOT NULL afterwards.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CardNumberBackfill implements SmartInitializingSingleton {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final CardRepository cardRepository;
+    private final CardNumberHasher cardNumberHasher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int total = 0;
+        int updated;
+        do {
+            updated = transactionTemplate.execute(status -> {
+                List<Card> cards = cardRepository.findByNumberHashIsNullOrMaskedNumberIsNull(PageRequest.of(0, BATCH_SIZE));
+                cards.forEach(card -> {
+                    card.setNumberHash(cardNumberHasher.hash(card.getNumber()));
+                    card.setMaskedNumber(CardNumberMasker.mask(card.getNumber()));
+                });
+                return cards.size();
+            });
+            total += updated;
+        } while (updated == BATCH_SIZE);
+
+        if (total > 0) {
+            log.info("Number hash and masked number were backfilled for {} cards", total);
+        }
+    }
+}
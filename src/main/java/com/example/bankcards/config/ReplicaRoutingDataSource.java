@@ -0,0 +1,82 @@
+package com.example.bankcards.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Target of the {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers the
+ * physical connection to the first statement, after the Spring transaction has been set up. Read-write
+ * transactions get the primary and are recorded for read-your-writes; read-only transactions get the replica
+ * unless the {@link ReplicaStalenessGuard} asks for the primary or the replica refuses a connection.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primaryDataSource;
+    private final DataSource replicaDataSource;
+    private final ReplicaStalenessGuard replicaStalenessGuard;
+    private final Counter replicaCounter;
+    private final Counter readYourWritesCounter;
+    private final Counter laggingCounter;
+    private final Counter unavailableCounter;
+
+    public ReplicaRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource,
+                                    ReplicaStalenessGuard replicaStalenessGuard, MeterRegistry meterRegistry) {
+        this.primaryDataSource = primaryDataSource;
+        this.replicaDataSource = replicaDataSource;
+        this.replicaStalenessGuard = replicaStalenessGuard;
+        this.replicaCounter = routingCounter(meterRegistry, "replica", "none");
+        this.readYourWritesCounter = routingCounter(meterRegistry, "primary", "read-your-writes");
+        this.laggingCounter = routingCounter(meterRegistry, "primary", "replica-lagging");
+        this.unavailableCounter = routingCounter(meterRegistry, "primary", "replica-unavailable");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                replicaStalenessGuard.recordWrite();
+            }
+            return primaryDataSource.getConnection();
+        }
+
+        if (replicaStalenessGuard.hasRecentWrite()) {
+            readYourWritesCounter.increment();
+            return primaryDataSource.getConnection();
+        }
+        if (!replicaStalenessGuard.isReplicaUsable()) {
+            laggingCounter.increment();
+            return primaryDataSource.getConnection();
+        }
+
+        try {
+            Connection connection = replicaDataSource.getConnection();
+            replicaCounter.increment();
+            return connection;
+        } catch (SQLException e) {
+            log.warn("Replica connection failed, reading from the primary: {}", e.getMessage());
+            unavailableCounter.increment();
+            return primaryDataSource.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Routing data source uses the credentials of its pools");
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.read.routing")
+                .description("Read-only connections by the pool that served them")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.bankcards.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Decides whether a read may go to the replica. A user who wrote within the read-your-writes window reads
+ * from the primary, and the replica is skipped entirely while its replay lag is above the limit or the
+ * lag check fails.
+ */
+@Slf4j
+public class ReplicaStalenessGuard {
+
+    private static final String REPLICATION_LAG_QUERY = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END""";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final Duration maxLag;
+    private final Cache<String, Boolean> recentWriters;
+    private volatile boolean replicaUsable = true;
+
+    public ReplicaStalenessGuard(DataSource replicaDataSource, Duration maxLag, Duration readYourWritesWindow) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.maxLag = maxLag;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+    }
+
+    public void recordWrite() {
+        String username = currentUsername();
+        if (username != null) {
+            recentWriters.put(username, Boolean.TRUE);
+        }
+    }
+
+    public boolean hasRecentWrite() {
+        String username = currentUsername();
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval}")
+    public void checkReplicationLag() {
+        boolean usable;
+        try {
+            Double lagSeconds = replicaJdbcTemplate.queryForObject(REPLICATION_LAG_QUERY, Double.class);
+            usable = lagSeconds == null || lagSeconds * 1000 <= maxLag.toMillis();
+            if (!usable) {
+                log.warn("Replica lags {} s behind the primary, reads go to the primary", lagSeconds);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Replica lag check failed, reads go to the primary: {}", e.getMessage());
+            usable = false;
+        }
+
+        if (usable && !replicaUsable) {
+            log.info("Replica caught up, reads go to the replica again");
+        }
+        replicaUsable = usable;
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+}
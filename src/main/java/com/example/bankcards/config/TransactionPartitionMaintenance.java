@@ -0,0 +1,155 @@
+package com.example.bankcards.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps monthly partitions of the transaction table ahead of the clock and detaches partitions older than the
+ * retention period. The detached table is renamed to archived_transaction_YYYY_MM and left for archiving or
+ * dropping. PostgreSQL can't detach CONCURRENTLY while the default partition exists, so a detach waits for its
+ * lock only briefly and is retried with a growing pause, keeping transfers from queueing behind it. Rows that landed in transaction_default because their month had no partition are moved into a
+ * partition of their own.
+ */
+@Component
+@Slf4j
+public class TransactionPartitionMaintenance implements ApplicationRunner {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("transaction_(\\d{4})_(\\d{2})");
+
+    private static final String DETACH_LOCK_TIMEOUT = "100ms";
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final int detachMaxAttempts;
+    private final Duration detachRetryBackoff;
+
+    public TransactionPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                           TransactionTemplate transactionTemplate,
+                                           @Value("${transaction.partition.months-ahead}") int monthsAhead,
+                                           @Value("${transaction.partition.retention-months}") int retentionMonths,
+                                           @Value("${transaction.partition.detach.max-attempts}") int detachMaxAttempts,
+                                           @Value("${transaction.partition.detach.retry-backoff}") Duration detachRetryBackoff) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.detachMaxAttempts = detachMaxAttempts;
+        this.detachRetryBackoff = detachRetryBackoff;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        maintain();
+    }
+
+    @Scheduled(cron = "${transaction.partition.cron}")
+    public void maintain() {
+        createPartitions(LocalDate.now());
+        drainDefaultPartition();
+        detachExpiredPartitions(YearMonth.now());
+    }
+
+    void createPartitions(LocalDate today) {
+        for (int month = 0; month <= monthsAhead; month++) {
+            try {
+                jdbcTemplate.queryForObject("SELECT create_transaction_partition(?)", String.class, today.plusMonths(month));
+            } catch (DataAccessException e) {
+                log.error("Partition for {} wasn't created", YearMonth.from(today.plusMonths(month)), e);
+            }
+        }
+    }
+
+    void drainDefaultPartition() {
+        List<LocalDate> months = jdbcTemplate.queryForList(
+                "SELECT DISTINCT CAST(date_trunc('month', timestamp) AS date) FROM transaction_default", LocalDate.class);
+        for (LocalDate month : months) {
+            try {
+                String partition = jdbcTemplate.queryForObject("SELECT create_transaction_partition(?)", String.class, month);
+                log.warn("Transactions for {} were moved from the default partition to {}", YearMonth.from(month), partition);
+            } catch (DataAccessException e) {
+                log.error("Transactions for {} weren't moved from the default partition", YearMonth.from(month), e);
+            }
+        }
+    }
+
+    void detachExpiredPartitions(YearMonth currentMonth) {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestKept = currentMonth.minusMonths(retentionMonths);
+
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'transaction'::regclass""", String.class);
+
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(oldestKept)) {
+                continue;
+            }
+
+            try {
+                detach(partition);
+                log.info("Partition {} was detached and renamed to archived_{}", partition, partition);
+            } catch (DataAccessException e) {
+                log.error("Partition {} wasn't detached", partition, e);
+            }
+        }
+    }
+
+    private void detach(String partition) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("SET LOCAL lock_timeout = '" + DETACH_LOCK_TIMEOUT + "'");
+                    jdbcTemplate.execute(String.format("ALTER TABLE transaction DETACH PARTITION %s", partition));
+                    jdbcTemplate.execute(String.format("ALTER TABLE %s RENAME TO archived_%s", partition, partition));
+                });
+                return;
+            } catch (DataAccessException e) {
+                if (!isLockTimeout(e) || attempt >= detachMaxAttempts) {
+                    throw e;
+                }
+                log.warn("Partition {} is in use, detach attempt {} of {} will be retried", partition, attempt, detachMaxAttempts);
+                backOff(attempt);
+            }
+        }
+    }
+
+    private boolean isLockTimeout(DataAccessException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLException sqlException
+                && LOCK_NOT_AVAILABLE.equals(sqlException.getSQLState());
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(detachRetryBackoff.toMillis() << (attempt - 1));
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry partition detach", interruptedException);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.error.AppErrorDto;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Error responses shared by the cursor pagination endpoints.
+ */
+@Target({ ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@ApiResponse(
+        responseCode = "400",
+        description = "Invalid cursor or page size",
+        content = @Content(mediaType = "application/json", schema = @Schema(implementation = AppErrorDto.class))
+)
+@interface CursorApiResponses {
+}
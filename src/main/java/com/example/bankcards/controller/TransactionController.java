@@ -1,9 +1,14 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.CursorPageDto;
 import com.example.bankcards.dto.TransactionDto;
 import com.example.bankcards.dto.TransactionFilterDto;
 import com.example.bankcards.dto.error.AppErrorDto;
+import com.example.bankcards.exception.UnsupportedExportFormatException;
 import com.example.bankcards.service.TransactionService;
+import com.example.bankcards.util.Constants;
+import com.example.bankcards.util.EnumValidation;
+import com.example.bankcards.util.ExportFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,17 +16,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.security.Principal;
 import java.util.UUID;
 
 @RestController
+@Validated
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/transaction")
 @Tag(name = "Transaction Management", description = "Endpoints for viewing and managing user transactions")
@@ -132,4 +145,117 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping("/cursor")
+    @CursorApiResponses
+    @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = AppErrorDto.class))
+    )
+    @Operation(summary = "Get all transactions by cursor", description = "Retrieve all transactions page by page using a cursor from the previous page")
+    public ResponseEntity<CursorPageDto<TransactionDto>> scrollAll(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "pageSize", required = false, defaultValue = "20")
+            @Min(1) @Max(Constants.MAX_CURSOR_PAGE_SIZE) Integer pageSize,
+            @RequestParam(value = "minAmount", required = false) BigDecimal minAmount,
+            @RequestParam(value = "maxAmount", required = false) BigDecimal maxAmount,
+            @RequestParam(value = "operation", required = false) String operation,
+            @RequestParam(value = "operationResult", required = false) String operationResult
+    ) {
+        TransactionFilterDto transactionFilterDto = new TransactionFilterDto(minAmount, maxAmount, operation, operationResult);
+        CursorPageDto<TransactionDto> transactions = transactionService.scrollAll(after, pageSize, transactionFilterDto);
+        return ResponseEntity.ok(transactions);
+    }
+
+    @GetMapping("/{cardId}/cursor")
+    @CursorApiResponses
+    @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = AppErrorDto.class))
+    )
+    @Operation(summary = "Get transactions by card ID by cursor", description = "Retrieve transactions of a specific card page by page using a cursor from the previous page")
+    public ResponseEntity<CursorPageDto<TransactionDto>> scrollAllByCardId(
+            @PathVariable UUID cardId,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "pageSize", required = false, defaultValue = "20")
+            @Min(1) @Max(Constants.MAX_CURSOR_PAGE_SIZE) Integer pageSize) {
+        CursorPageDto<TransactionDto> transactions = transactionService.scrollAllByCardId(cardId, after, pageSize);
+        return ResponseEntity.ok(transactions);
+    }
+
+    @GetMapping("/{userId}/user/cursor")
+    @CursorApiResponses
+    @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = AppErrorDto.class))
+    )
+    @Operation(summary = "Get transactions by user ID by cursor", description = "Retrieve transactions of a specific user page by page using a cursor from the previous page")
+    public ResponseEntity<CursorPageDto<TransactionDto>> scrollAllByUserId(
+            @PathVariable UUID userId,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "pageSize", required = false, defaultValue = "20")
+            @Min(1) @Max(Constants.MAX_CURSOR_PAGE_SIZE) Integer pageSize) {
+        CursorPageDto<TransactionDto> transactions = transactionService.scrollAllByUserId(userId, after, pageSize);
+        return ResponseEntity.ok(transactions);
+    }
+
+    @GetMapping("/me/cursor")
+    @CursorApiResponses
+    @Operation(summary = "Get current user's transactions by cursor", description = "Retrieve transactions of the currently authenticated user page by page using a cursor from the previous page")
+    public ResponseEntity<CursorPageDto<TransactionDto>> scrollAllUsersTransactions(
+            Principal principal,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "pageSize", required = false, defaultValue = "20")
+            @Min(1) @Max(Constants.MAX_CURSOR_PAGE_SIZE) Integer pageSize) {
+        CursorPageDto<TransactionDto> transactions = transactionService.scrollAllByUsername(principal.getName(), after, pageSize);
+        return ResponseEntity.ok(transactions);
+    }
+
+    @GetMapping("/me/{cardId}/cursor")
+    @CursorApiResponses
+    @Operation(summary = "Get current user's transactions by card ID by cursor", description = "Retrieve current user's transactions for a specific card page by page using a cursor from the previous page")
+    public ResponseEntity<CursorPageDto<TransactionDto>> scrollAllUsersTransactionsByCardId(
+            Principal principal,
+            @PathVariable UUID cardId,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "pageSize", required = false, defaultValue = "20")
+            @Min(1) @Max(Constants.MAX_CURSOR_PAGE_SIZE) Integer pageSize) {
+        CursorPageDto<TransactionDto> transactions = transactionService
+                .scrollAllByUsernameAndCardId(principal.getName(), cardId, after, pageSize);
+        return ResponseEntity.ok(transactions);
+    }
+
+    @GetMapping("/{userId}/user/export")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unsupported export format",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = AppErrorDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = AppErrorDto.class))
+            ),
+    })
+    @Operation(summary = "Export transactions by user ID", description = "Stream the full transaction history of a specific user as CSV or NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportByUserId(
+            @PathVariable UUID userId,
+            @RequestParam(value = "format", required = false, defaultValue = "csv") String format) {
+        ExportFormat exportFormat = EnumValidation.safeParseEnum(ExportFormat.class, format);
+        if (exportFormat == null) {
+            throw new UnsupportedExportFormatException("Export format " + format + " isn't supported");
+        }
+        StreamingResponseBody body = outputStream -> transactionService.exportByUserId(userId, exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transactions-" + userId + "." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
 }
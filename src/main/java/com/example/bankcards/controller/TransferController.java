@@ -1,14 +1,17 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.error.AppErrorDto;
+import com.example.bankcards.dto.request.BulkTransferRequestDto;
 import com.example.bankcards.dto.request.RechargeRequestDto;
 import com.example.bankcards.dto.request.TransferRequestDto;
 import com.example.bankcards.dto.request.WithdrawalRequestDto;
+import com.example.bankcards.dto.response.BulkTransferResponseDto;
 import com.example.bankcards.dto.response.RechargeResponseDto;
 import com.example.bankcards.dto.response.TransferResponseDto;
 import com.example.bankcards.dto.response.WithdrawalResponseDto;
 import com.example.bankcards.service.TransferService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -20,6 +23,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -42,6 +46,11 @@ import java.security.Principal;
                 description = "Card not found",
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = AppErrorDto.class))
         ),
+        @ApiResponse(
+                responseCode = "409",
+                description = "Idempotency key was already used for a different request",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = AppErrorDto.class))
+        ),
         @ApiResponse(
                 responseCode = "400",
                 description = "Bad request",
@@ -56,8 +65,10 @@ public class TransferController {
     @Operation(summary = "Transfer funds", description = "Transfer money from one card to another")
     public ResponseEntity<TransferResponseDto> transfer(
             Principal principal,
+            @Parameter(description = "Client-generated key; a retry with the same key returns the first response")
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody @Valid TransferRequestDto transferRequestDto) {
-        TransferResponseDto transferResponseDto = transferService.transfer(principal.getName(), transferRequestDto);
+        TransferResponseDto transferResponseDto = transferService.transfer(principal.getName(), idempotencyKey, transferRequestDto);
         return ResponseEntity.ok(transferResponseDto);
     }
 
@@ -65,8 +76,10 @@ public class TransferController {
     @Operation(summary = "Withdraw money", description = "Initiate a withdrawal transaction for the current user")
     public ResponseEntity<WithdrawalResponseDto> withdrawal(
             Principal principal,
+            @Parameter(description = "Client-generated key; a retry with the same key returns the first response")
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody @Valid WithdrawalRequestDto withdrawalRequestDto) {
-        WithdrawalResponseDto withdrawalResponseDto = transferService.withdrawal(principal.getName(), withdrawalRequestDto);
+        WithdrawalResponseDto withdrawalResponseDto = transferService.withdrawal(principal.getName(), idempotencyKey, withdrawalRequestDto);
         return ResponseEntity.ok(withdrawalResponseDto);
     }
 
@@ -74,8 +87,24 @@ public class TransferController {
     @Operation(summary = "Recharge card", description = "Recharge a card with a specified amount for the current user")
     public ResponseEntity<RechargeResponseDto> recharge(
             Principal principal,
+            @Parameter(description = "Client-generated key; a retry with the same key returns the first response")
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody @Valid RechargeRequestDto rechargeRequestDto) {
-        RechargeResponseDto rechargeResponseDto = transferService.recharge(principal.getName(), rechargeRequestDto);
+        RechargeResponseDto rechargeResponseDto = transferService.recharge(principal.getName(), idempotencyKey, rechargeRequestDto);
         return ResponseEntity.ok(rechargeResponseDto);
     }
+
+    @PostMapping("/bulk")
+    @Operation(summary = "Transfer funds in bulk",
+            description = "Execute up to 1000 transfers between the current user's cards and return the result of each one")
+    public ResponseEntity<BulkTransferResponseDto> bulkTransfer(
+            Principal principal,
+            @Parameter(description = "Client-generated key; a retry with the same key returns the results of the chunks " +
+                    "that were committed and repeats the rest")
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody @Valid BulkTransferRequestDto bulkTransferRequestDto) {
+        BulkTransferResponseDto bulkTransferResponseDto = transferService.bulkTransfer(principal.getName(), idempotencyKey,
+                bulkTransferRequestDto);
+        return ResponseEntity.ok(bulkTransferResponseDto);
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.bankcards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "DTO representing one page of a cursor-paginated result.")
+public record CursorPageDto<T>(
+
+        @Schema(description = "Items of the current page")
+        List<T> content,
+
+        @Schema(description = "Opaque cursor for the next page, absent on the last page", example = "MjAyNS0wMS0wMVQxMjowMHxmNDdhYzEwYi01OGNjLTQzNzItYTU2Ny0wZTAyYjJjM2Q0Nzk")
+        String nextCursor) {
+}
@@ -0,0 +1,22 @@
+package com.example.bankcards.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "DTO for executing several transfers in one request")
+public class BulkTransferRequestDto {
+
+    public static final int MAX_TRANSFERS = 1000;
+
+    @Valid
+    @NotEmpty(message = "Transfers must not be empty")
+    @Size(max = MAX_TRANSFERS, message = "Maximum number of transfers in one request is " + MAX_TRANSFERS)
+    @Schema(description = "Transfers executed in the given order")
+    private List<TransferRequestDto> transfers;
+}
@@ -0,0 +1,27 @@
+package com.example.bankcards.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result of one transfer of a bulk request")
+public class BulkTransferItemDto {
+
+    @Schema(description = "Position of the transfer in the request", example = "0")
+    private int index;
+
+    @Schema(description = "HTTP status the transfer would get as a single request", example = "200")
+    private int code;
+
+    @Schema(description = "Error message of a failed transfer", example = "Amount 100000 more than balance 700.00")
+    private String message;
+
+    @Schema(description = "Details of a successful transfer")
+    private TransferResponseDto transfer;
+}
@@ -0,0 +1,26 @@
+package com.example.bankcards.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Response DTO with the result of every transfer of a bulk request")
+public class BulkTransferResponseDto {
+
+    @Schema(description = "Number of executed transfers", example = "998")
+    private int succeeded;
+
+    @Schema(description = "Number of failed transfers", example = "2")
+    private int failed;
+
+    @Schema(description = "Results in the order of the request")
+    private List<BulkTransferItemDto> results;
+}
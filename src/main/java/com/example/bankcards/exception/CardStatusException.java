@@ -1,7 +1,15 @@
 package com.example.bankcards.exception;
 
+import com.example.bankcards.model.enums.OperationResult;
+import lombok.Getter;
+
+@Getter
 public class CardStatusException extends CardException {
-    public CardStatusException(String message) {
+
+    private final OperationResult operationResult;
+
+    public CardStatusException(String message, OperationResult operationResult) {
         super(message);
+        this.operationResult = operationResult;
     }
 }
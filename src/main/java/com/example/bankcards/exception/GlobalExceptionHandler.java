@@ -3,17 +3,25 @@ package com.example.bankcards.exception;
 import com.example.bankcards.dto.error.AppErrorDto;
 import com.example.bankcards.dto.error.FieldErrorDto;
 import com.example.bankcards.exception.*;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.DisabledException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.sql.SQLTransientConnectionException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
+@Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -28,6 +36,14 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(new FieldErrorDto(errors,400), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<AppErrorDto> handleConstraintViolationException(ConstraintViolationException constraintViolationException) {
+        String message = constraintViolationException.getConstraintViolations().stream()
+                .map(violation -> violation.getPropertyPath().toString().replaceFirst(".*\\.", "") + " " + violation.getMessage())
+                .collect(Collectors.joining(", "));
+        return new ResponseEntity<>(new AppErrorDto(message,400), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<AppErrorDto> handleEntityNotFoundException(EntityNotFoundException entityNotFoundException) {
         return new ResponseEntity<>(new AppErrorDto(entityNotFoundException.getMessage(),404), HttpStatus.NOT_FOUND);
@@ -64,6 +80,46 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(new AppErrorDto(cardException.getMessage(),400), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<AppErrorDto> handleInvalidCursorException(InvalidCursorException invalidCursorException) {
+        return new ResponseEntity<>(new AppErrorDto(invalidCursorException.getMessage(),400), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<AppErrorDto> handleInvalidIdempotencyKeyException(InvalidIdempotencyKeyException invalidIdempotencyKeyException) {
+        return new ResponseEntity<>(new AppErrorDto(invalidIdempotencyKeyException.getMessage(),400), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<AppErrorDto> handleIdempotencyKeyConflictException(IdempotencyKeyConflictException idempotencyKeyConflictException) {
+        return new ResponseEntity<>(new AppErrorDto(idempotencyKeyConflictException.getMessage(),409), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(UnsupportedExportFormatException.class)
+    public ResponseEntity<AppErrorDto> handleUnsupportedExportFormatException(UnsupportedExportFormatException unsupportedExportFormatException) {
+        return new ResponseEntity<>(new AppErrorDto(unsupportedExportFormatException.getMessage(),400), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<AppErrorDto> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException passwordHashingUnavailableException) {
+        return new ResponseEntity<>(new AppErrorDto(passwordHashingUnavailableException.getMessage(),503), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<AppErrorDto> handleCannotCreateTransactionException(CannotCreateTransactionException cannotCreateTransactionException) {
+        // only a connection pool timeout means the service is busy, any other failure stays a 500
+        if (NestedExceptionUtils.getMostSpecificCause(cannotCreateTransactionException) instanceof SQLTransientConnectionException) {
+            return new ResponseEntity<>(new AppErrorDto("Service is busy, please try again later",503), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        log.error("Transaction couldn't be started", cannotCreateTransactionException);
+        return new ResponseEntity<>(new AppErrorDto("Internal server error",500), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<AppErrorDto> handleConcurrencyFailureException(ConcurrencyFailureException concurrencyFailureException) {
+        return new ResponseEntity<>(new AppErrorDto("Card was modified concurrently, please retry the operation", 409), HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(ManageYourselfException.class)
     public ResponseEntity<AppErrorDto> handleManageYourselfException(ManageYourselfException manageYourselfException) {
         return new ResponseEntity<>(new AppErrorDto(manageYourselfException.getMessage(),400), HttpStatus.BAD_REQUEST);
@@ -0,0 +1,7 @@
+package com.example.bankcards.exception;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bankcards.exception;
+
+public class UnsupportedExportFormatException extends RuntimeException {
+    public UnsupportedExportFormatException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.bankcards.model;
 
 import com.example.bankcards.model.enums.BlockStatus;
+import com.example.bankcards.util.generator.UuidV7;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,7 +18,7 @@ import java.util.UUID;
 public class BlockRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "created_at", nullable = false)
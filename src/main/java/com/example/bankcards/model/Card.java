@@ -2,6 +2,7 @@ package com.example.bankcards.model;
 
 import com.example.bankcards.util.CardNumberCryptoConverter;
 import com.example.bankcards.model.enums.CardStatus;
+import com.example.bankcards.util.generator.UuidV7;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -27,7 +28,7 @@ import java.util.UUID;
 public class Card {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "number", nullable = false)
@@ -35,6 +36,12 @@ public class Card {
     @Convert(converter = CardNumberCryptoConverter.class)
     private String number;
 
+    @Column(name = "number_hash", nullable = false, unique = true)
+    private String numberHash;
+
+    @Column(name = "masked_number", nullable = false)
+    private String maskedNumber;
+
     @Column(name = "balance", nullable = false)
     @NotNull(message = "Balance must not be null")
     private BigDecimal balance;
@@ -49,6 +56,10 @@ public class Card {
     @NotNull(message = "Expiration date must not be null")
     private LocalDate expirationDate;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @ManyToOne(cascade = CascadeType.REFRESH, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -62,8 +73,5 @@ public class Card {
 
     @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY, mappedBy = "card")
     private List<Transaction> transactions = new ArrayList<>();
-
-    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY, mappedBy = "card")
-    private Limit limit;
 }
 
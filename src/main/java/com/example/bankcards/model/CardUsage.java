@@ -0,0 +1,39 @@
+package com.example.bankcards.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@Table(name = "card_usage")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardUsage {
+
+    @Id
+    @Column(name = "card_id")
+    private UUID cardId;
+
+    @Column(name = "daily_period", nullable = false)
+    private LocalDate dailyPeriod;
+
+    @Column(name = "daily_withdrawn", nullable = false)
+    private BigDecimal dailyWithdrawn;
+
+    @Column(name = "monthly_period", nullable = false)
+    private LocalDate monthlyPeriod;
+
+    @Column(name = "monthly_withdrawn", nullable = false)
+    private BigDecimal monthlyWithdrawn;
+}
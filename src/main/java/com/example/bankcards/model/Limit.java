@@ -1,5 +1,6 @@
 package com.example.bankcards.model;
 
+import com.example.bankcards.util.generator.UuidV7;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,7 +20,7 @@ import java.util.UUID;
 public class Limit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "daily_limit", nullable = false)
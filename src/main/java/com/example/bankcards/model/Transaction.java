@@ -2,6 +2,7 @@ package com.example.bankcards.model;
 
 import com.example.bankcards.model.enums.OperationResult;
 import com.example.bankcards.model.enums.OperationType;
+import com.example.bankcards.util.generator.UuidV7;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,7 +24,7 @@ import java.util.UUID;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "amount", nullable = false)
@@ -44,7 +45,9 @@ public class Transaction {
 
     @PrePersist
     void init() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
 
     @ManyToOne(fetch = FetchType.LAZY)
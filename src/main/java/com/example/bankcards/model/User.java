@@ -1,5 +1,6 @@
 package com.example.bankcards.model;
 
+import com.example.bankcards.util.generator.UuidV7;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -20,7 +21,7 @@ import java.util.*;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "first_name", nullable = false)
@@ -1,42 +1,85 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.model.Card;
-import org.springframework.data.domain.Page;
+import com.example.bankcards.repository.projection.CardResolution;
+import com.example.bankcards.repository.projection.CardSummary;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface CardRepository extends JpaRepository<Card, UUID>, JpaSpecificationExecutor<Card> {
 
-    Boolean existsCardByNumber(String number);
+    Boolean existsCardByNumberHash(String numberHash);
 
-    Optional<Card> findCardByUserUsernameAndNumber(String username, String number);
+    Optional<Card> findCardByUserUsernameAndNumberHash(String username, String numberHash);
 
     Optional<Card> findCardByUserUsernameAndId(String username, UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select c from Card c
+            where c.user.id = (select u.id from User u where u.username = :username) and c.numberHash = :numberHash""")
+    Optional<Card> findCardForUpdateByUserUsernameAndNumberHash(@Param("username") String username,
+                                                                @Param("numberHash") String numberHash);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select c from Card c
+            where c.user.id = (select u.id from User u where u.username = :username) and c.numberHash in :numberHashes
+            order by c.id""")
+    List<Card> lockCardsByUserUsernameAndNumberHashes(@Param("username") String username,
+                                                      @Param("numberHashes") Collection<String> numberHashes);
+
+    @Query("""
+            select new com.example.bankcards.repository.projection.CardResolution(
+                c.id, c.user.id, c.maskedNumber, c.status, c.expirationDate)
+            from Card c where c.user.username = :username and c.numberHash = :numberHash""")
+    Optional<CardResolution> findCardResolutionByUserUsernameAndNumberHash(@Param("username") String username,
+                                                                           @Param("numberHash") String numberHash);
+
+    @Query(value = "SELECT id FROM card WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<UUID> lockCardsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    List<Card> findByNumberHashIsNullOrMaskedNumberIsNull(Pageable pageable);
+
+    @Query("""
+            select c.id as id, c.maskedNumber as maskedNumber, c.status as status, c.balance as balance,
+                   c.expirationDate as expirationDate, c.user.id as userId
+            from Card c where c.user.id in :userIds""")
+    List<CardSummary> findCardSummariesByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+
     @Query(value = """
-            SELECT SUM(t.amount)
-            FROM transaction t
-            WHERE t.operation = 'WITHDRAWAL' AND t.operation_result = 'SUCCESSFULLY'
-             AND DATE(t.timestamp) = CURRENT_DATE AND t.card_id = :cardId""",
+            UPDATE card SET balance = balance - :amount, version = version + 1
+            WHERE id = :id AND balance >= :amount AND status = 'ACTIVE' AND expiration_date > CURRENT_DATE
+            RETURNING balance""",
             nativeQuery = true)
-    Optional<BigDecimal> findTodayWithdrawalsByCardId(@Param("cardId") UUID cardId);
+    Optional<BigDecimal> debit(@Param("id") UUID id, @Param("amount") BigDecimal amount);
 
+    @Transactional
     @Query(value = """
-            SELECT SUM(t.amount)
-            FROM transaction t
-            WHERE t.operation = 'WITHDRAWAL' AND t.operation_result = 'SUCCESSFULLY'
-            AND EXTRACT(MONTH FROM t.timestamp) = EXTRACT(MONTH FROM CURRENT_DATE)
-            AND EXTRACT(YEAR FROM t.timestamp) = EXTRACT(YEAR FROM CURRENT_DATE)
-            AND t.card_id = :cardId""",
+            UPDATE card SET status = 'EXPIRED', version = version + 1
+            WHERE id IN (SELECT id FROM card WHERE status = 'ACTIVE' AND expiration_date <= CURRENT_DATE
+                         LIMIT :batchSize FOR UPDATE SKIP LOCKED)
+            RETURNING id""",
             nativeQuery = true)
-    Optional<BigDecimal> findTotalWithdrawalsForCurrentMonthByCardId(@Param("cardId") UUID cardId);
-
+    List<UUID> expireCards(@Param("batchSize") int batchSize);
 
+    @Modifying
+    @Query(value = """
+            UPDATE card SET balance = balance + :amount, version = version + 1
+            WHERE id = :id AND status = 'ACTIVE' AND expiration_date > CURRENT_DATE""",
+            nativeQuery = true)
+    int credit(@Param("id") UUID id, @Param("amount") BigDecimal amount);
 }
@@ -0,0 +1,63 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.model.CardUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Usage periods are taken from the caller's {@code today}, the same clock the limit check compares them with, so
+ * a database in another timezone can't reset the counters at a different midnight.
+ */
+public interface CardUsageRepository extends JpaRepository<CardUsage, UUID> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO card_usage (card_id, daily_period, daily_withdrawn, monthly_period, monthly_withdrawn)
+            VALUES (:cardId, :today, :amount, CAST(date_trunc('month', CAST(:today AS date)) AS date), :amount)
+            ON CONFLICT (card_id) DO UPDATE SET
+             daily_withdrawn = CASE WHEN card_usage.daily_period = EXCLUDED.daily_period
+              THEN card_usage.daily_withdrawn + EXCLUDED.daily_withdrawn ELSE EXCLUDED.daily_withdrawn END,
+             daily_period = EXCLUDED.daily_period,
+             monthly_withdrawn = CASE WHEN card_usage.monthly_period = EXCLUDED.monthly_period
+              THEN card_usage.monthly_withdrawn + EXCLUDED.monthly_withdrawn ELSE EXCLUDED.monthly_withdrawn END,
+             monthly_period = EXCLUDED.monthly_period""",
+            nativeQuery = true)
+    void recordWithdrawal(@Param("cardId") UUID cardId, @Param("amount") BigDecimal amount, @Param("today") LocalDate today);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO card_usage (card_id, daily_period, daily_withdrawn, monthly_period, monthly_withdrawn)
+            SELECT l.card_id, :today, :amount, CAST(date_trunc('month', CAST(:today AS date)) AS date), :amount
+            FROM limits l
+            WHERE l.card_id = :cardId AND :amount <= l.daily_limit AND :amount <= l.monthly_limit
+            ON CONFLICT (card_id) DO UPDATE SET
+             daily_withdrawn = CASE WHEN card_usage.daily_period = EXCLUDED.daily_period
+              THEN card_usage.daily_withdrawn + EXCLUDED.daily_withdrawn ELSE EXCLUDED.daily_withdrawn END,
+             daily_period = EXCLUDED.daily_period,
+             monthly_withdrawn = CASE WHEN card_usage.monthly_period = EXCLUDED.monthly_period
+              THEN card_usage.monthly_withdrawn + EXCLUDED.monthly_withdrawn ELSE EXCLUDED.monthly_withdrawn END,
+             monthly_period = EXCLUDED.monthly_period
+            WHERE (CASE WHEN card_usage.daily_period = EXCLUDED.daily_period
+                    THEN card_usage.daily_withdrawn ELSE 0 END) + EXCLUDED.daily_withdrawn
+                   <= (SELECT l.daily_limit FROM limits l WHERE l.card_id = card_usage.card_id)
+              AND (CASE WHEN card_usage.monthly_period = EXCLUDED.monthly_period
+                    THEN card_usage.monthly_withdrawn ELSE 0 END) + EXCLUDED.monthly_withdrawn
+                   <= (SELECT l.monthly_limit FROM limits l WHERE l.card_id = card_usage.card_id)""",
+            nativeQuery = true)
+    int recordWithdrawalWithinLimits(@Param("cardId") UUID cardId, @Param("amount") BigDecimal amount,
+                                     @Param("today") LocalDate today);
+
+    @Modifying
+    @Query(value = """
+            UPDATE card_usage
+            SET daily_withdrawn = daily_withdrawn - :amount, monthly_withdrawn = monthly_withdrawn - :amount
+            WHERE card_id = :cardId""",
+            nativeQuery = true)
+    void releaseWithdrawal(@Param("cardId") UUID cardId, @Param("amount") BigDecimal amount);
+}
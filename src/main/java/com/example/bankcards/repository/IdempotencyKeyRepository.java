@@ -0,0 +1,60 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.model.IdempotencyKey;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, UUID> {
+
+    /**
+     * Claims the key for the current transaction; an expired key is claimed again. Returns 0 when the key
+     * is already taken, after waiting for a concurrent transaction holding it to finish.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO idempotency_key (username, idempotency_key, request_hash, created_at, expires_at)
+            VALUES (:username, :idempotencyKey, :requestHash, :now, :expiresAt)
+            ON CONFLICT (username, idempotency_key) DO UPDATE SET
+             request_hash = EXCLUDED.request_hash,
+             response_body = NULL,
+             created_at = EXCLUDED.created_at,
+             expires_at = EXCLUDED.expires_at
+            WHERE idempotency_key.expires_at <= EXCLUDED.created_at""",
+            nativeQuery = true)
+    int reserve(@Param("username") String username,
+                @Param("idempotencyKey") String idempotencyKey,
+                @Param("requestHash") String requestHash,
+                @Param("now") LocalDateTime now,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select k from IdempotencyKey k where k.username = :username and k.idempotencyKey = :idempotencyKey")
+    Optional<IdempotencyKey> findForUpdateByUsernameAndIdempotencyKey(@Param("username") String username,
+                                                                     @Param("idempotencyKey") String idempotencyKey);
+
+    @Modifying
+    @Query(value = """
+            UPDATE idempotency_key SET response_body = :responseBody
+            WHERE username = :username AND idempotency_key = :idempotencyKey""",
+            nativeQuery = true)
+    void complete(@Param("username") String username,
+                  @Param("idempotencyKey") String idempotencyKey,
+                  @Param("responseBody") String responseBody);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM idempotency_key
+            WHERE id IN (SELECT id FROM idempotency_key WHERE expires_at <= :now LIMIT :batchSize)""",
+            nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
@@ -1,7 +1,10 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.model.Limit;
+import com.example.bankcards.repository.projection.CardLimits;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -9,4 +12,9 @@ import java.util.UUID;
 public interface LimitRepository extends JpaRepository<Limit, UUID> {
 
     Optional<Limit> findByCardId(UUID id);
+
+    @Query("""
+            select new com.example.bankcards.repository.projection.CardLimits(l.dailyLimit, l.monthlyLimit)
+            from Limit l where l.card.id = :cardId""")
+    Optional<CardLimits> findCardLimitsByCardId(@Param("cardId") UUID cardId);
 }
@@ -2,12 +2,23 @@ package com.example.bankcards.repository;
 
 
 import com.example.bankcards.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface TransactionRepository extends JpaRepository<Transaction, UUID>, JpaSpecificationExecutor<Transaction> {
 
@@ -19,5 +30,52 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>,
 
     Page<Transaction> findByCardUserUsernameAndCardIdOrderByTimestampDesc(String email, UUID id, PageRequest pageRequest);
 
+    @Query("""
+            select t from Transaction t
+            where t.card.id = :id
+              and t.timestamp <= :timestamp and (t.timestamp < :timestamp or t.id < :transactionId)
+            order by t.timestamp desc, t.id desc""")
+    List<Transaction> findByCardIdBefore(@Param("id") UUID id,
+                                         @Param("timestamp") LocalDateTime timestamp,
+                                         @Param("transactionId") UUID transactionId,
+                                         Limit limit);
+
+    @Query("""
+            select t from Transaction t
+            where t.card.user.id = :id
+              and t.timestamp <= :timestamp and (t.timestamp < :timestamp or t.id < :transactionId)
+            order by t.timestamp desc, t.id desc""")
+    List<Transaction> findByCardUserIdBefore(@Param("id") UUID id,
+                                             @Param("timestamp") LocalDateTime timestamp,
+                                             @Param("transactionId") UUID transactionId,
+                                             Limit limit);
+
+    @Query("""
+            select t from Transaction t
+            where t.card.user.username = :username
+              and t.timestamp <= :timestamp and (t.timestamp < :timestamp or t.id < :transactionId)
+            order by t.timestamp desc, t.id desc""")
+    List<Transaction> findByCardUserUsernameBefore(@Param("username") String username,
+                                                   @Param("timestamp") LocalDateTime timestamp,
+                                                   @Param("transactionId") UUID transactionId,
+                                                   Limit limit);
+
+    @Query("""
+            select t from Transaction t
+            where t.card.user.username = :username and t.card.id = :id
+              and t.timestamp <= :timestamp and (t.timestamp < :timestamp or t.id < :transactionId)
+            order by t.timestamp desc, t.id desc""")
+    List<Transaction> findByCardUserUsernameAndCardIdBefore(@Param("username") String username,
+                                                            @Param("id") UUID id,
+                                                            @Param("timestamp") LocalDateTime timestamp,
+                                                            @Param("transactionId") UUID transactionId,
+                                                            Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t from Transaction t where t.card.user.id = :id order by t.timestamp desc, t.id desc")
+    Stream<Transaction> streamByCardUserId(@Param("id") UUID id);
 
 }
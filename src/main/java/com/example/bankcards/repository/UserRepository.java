@@ -1,24 +1,27 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.model.User;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
 
-    @EntityGraph(attributePaths = {"cards"})
-    Optional<User> findByUsername(String username);
+    @EntityGraph(attributePaths = {"roles"})
+    Optional<User> findWithRolesByUsername(String username);
 
-    @Override
-    @EntityGraph(attributePaths = {"cards"})
-    Optional<User> findById(UUID uuid);
+    boolean existsByUsername(String username);
+
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    int updatePasswordByUsername(@Param("username") String username, @Param("password") String password);
 
     @Override
     @EntityGraph(attributePaths = {"cards"})
-    Page<User> findAll(Pageable pageable);
+    Optional<User> findById(UUID uuid);
 }
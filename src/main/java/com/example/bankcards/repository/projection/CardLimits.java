@@ -0,0 +1,6 @@
+package com.example.bankcards.repository.projection;
+
+import java.math.BigDecimal;
+
+public record CardLimits(BigDecimal dailyLimit, BigDecimal monthlyLimit) {
+}
@@ -0,0 +1,13 @@
+package com.example.bankcards.repository.projection;
+
+import com.example.bankcards.model.enums.CardStatus;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record CardResolution(UUID id, UUID userId, String maskedNumber, CardStatus status, LocalDate expirationDate) {
+
+    public boolean isActiveOn(LocalDate date) {
+        return status == CardStatus.ACTIVE && expirationDate.isAfter(date);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.bankcards.repository.projection;
+
+import com.example.bankcards.model.enums.CardStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface CardSummary {
+
+    UUID getId();
+
+    String getMaskedNumber();
+
+    CardStatus getStatus();
+
+    BigDecimal getBalance();
+
+    LocalDate getExpirationDate();
+
+    UUID getUserId();
+}
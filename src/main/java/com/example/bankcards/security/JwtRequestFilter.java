@@ -4,10 +4,13 @@ import com.example.bankcards.dto.error.AppErrorDto;
 import com.example.bankcards.util.JwtAccessTokenUtils;
 import com.example.bankcards.util.Constants;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -31,36 +34,45 @@ import java.util.stream.Collectors;
 public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final JwtAccessTokenUtils jwtAccessTokenUtils;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
 
         String authHeader = request.getHeader(Constants.AUTHORIZATION_HEADER);
         String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authHeader != null && authHeader.startsWith(Constants.BEARER)) {
-            jwt = authHeader.substring(7);
+            String jwt = authHeader.substring(7);
+            Timer.Sample sample = Timer.start(meterRegistry);
             try {
-                log.info("Try getting token");
-                username = jwtAccessTokenUtils.getUsername(jwt);
+                log.debug("Try getting token");
+                claims = jwtAccessTokenUtils.getAllClaimsFromToken(jwt);
+                username = claims.getSubject();
+                recordParse(sample, "valid");
             } catch (ExpiredJwtException e) {
+                recordParse(sample, "expired");
                 log.error("Token expiration time has passed");
                 handleException(response, "Token expiration time has passed");
                 return;
             } catch (SignatureException e) {
+                recordParse(sample, "invalid_signature");
                 log.error("Invalid signature");
                 handleException(response, "Invalid signature");
                 return;
             } catch (MalformedJwtException e) {
+                recordParse(sample, "malformed");
                 log.error("Invalid token");
                 handleException(response, "Invalid token");
                 return;
             } catch (UnsupportedJwtException e) {
+                recordParse(sample, "unsupported");
                 log.error("Token format is not supported");
                 handleException(response, "Token format is not supported");
                 return;
             } catch (IllegalArgumentException e) {
+                recordParse(sample, "invalid");
                 log.error("Token is empty or invalid");
                 handleException(response, "Token is empty or invalid");
                 return;
@@ -71,7 +83,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
                     username,
                     null,
-                    jwtAccessTokenUtils.getRoles(jwt).stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList())
+                    jwtAccessTokenUtils.getRoles(claims).stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList())
             );
             SecurityContextHolder.getContext().setAuthentication(token);
         }
@@ -79,6 +91,10 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void recordParse(Timer.Sample sample, String result) {
+        sample.stop(meterRegistry.timer("jwt.parse", "result", result));
+    }
+
     private void handleException(HttpServletResponse response, String message) throws IOException {
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
@@ -5,21 +5,25 @@ import com.example.bankcards.repository.UserRepository;
 
 import com.example.bankcards.util.UserDetailsWrapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Slf4j
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = userRepository.findWithRolesByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException(String.format("User with username %s not found ", username)));
         UserDetailsWrapper userDetailsWrapper = new UserDetailsWrapper(user);
         if (!userDetailsWrapper.isEnabled()) {
@@ -28,4 +32,14 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return userDetailsWrapper;
     }
 
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository.updatePasswordByUsername(userDetails.getUsername(), newPassword);
+        UserDetailsWrapper userDetailsWrapper = (UserDetailsWrapper) userDetails;
+        userDetailsWrapper.getUser().setPassword(newPassword);
+        log.info("Password hash of user {} was upgraded to the configured cost", userDetails.getUsername());
+        return userDetailsWrapper;
+    }
+
 }
@@ -0,0 +1,17 @@
+package com.example.bankcards.service;
+
+import java.util.UUID;
+
+public interface CacheInvalidationBus {
+
+    void invalidate(String cacheName, UUID key);
+
+    void subscribe(String cacheName, Listener listener);
+
+    interface Listener {
+
+        void invalidate(UUID key);
+
+        void invalidateAll();
+    }
+}
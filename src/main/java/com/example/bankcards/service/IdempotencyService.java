@@ -0,0 +1,20 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.model.enums.OperationType;
+
+import java.util.Optional;
+
+public interface IdempotencyService {
+
+    <T> Optional<T> findCachedResponse(String username, String idempotencyKey, OperationType operationType,
+                                       Object request, Class<T> responseType);
+
+    <T> Optional<T> reserve(String username, String idempotencyKey, OperationType operationType,
+                            Object request, Class<T> responseType);
+
+    <T> T complete(String username, String idempotencyKey, OperationType operationType, Object request, T response);
+
+    String partKey(String idempotencyKey, int part);
+
+    void deleteExpiredKeys();
+}
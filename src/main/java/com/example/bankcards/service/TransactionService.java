@@ -1,10 +1,14 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.CursorPageDto;
 import com.example.bankcards.dto.TransactionDto;
 import com.example.bankcards.dto.TransactionFilterDto;
 import org.springframework.data.domain.Page;
+import com.example.bankcards.util.ExportFormat;
 import org.springframework.data.domain.PageRequest;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.UUID;
 
 public interface TransactionService {
@@ -18,4 +22,16 @@ public interface TransactionService {
     Page<TransactionDto> findAllByUsername(String username, PageRequest pageRequest);
 
     Page<TransactionDto> findAllByUsernameAndCardId(String username, UUID id, PageRequest pageRequest);
+
+    CursorPageDto<TransactionDto> scrollAll(String after, int pageSize, TransactionFilterDto transactionFilterDto);
+
+    CursorPageDto<TransactionDto> scrollAllByCardId(UUID id, String after, int pageSize);
+
+    CursorPageDto<TransactionDto> scrollAllByUserId(UUID id, String after, int pageSize);
+
+    CursorPageDto<TransactionDto> scrollAllByUsername(String username, String after, int pageSize);
+
+    CursorPageDto<TransactionDto> scrollAllByUsernameAndCardId(String username, UUID id, String after, int pageSize);
+
+    void exportByUserId(UUID id, ExportFormat format, OutputStream outputStream) throws IOException;
 }
@@ -1,17 +1,21 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.request.BulkTransferRequestDto;
 import com.example.bankcards.dto.request.RechargeRequestDto;
 import com.example.bankcards.dto.request.TransferRequestDto;
 import com.example.bankcards.dto.request.WithdrawalRequestDto;
+import com.example.bankcards.dto.response.BulkTransferResponseDto;
 import com.example.bankcards.dto.response.RechargeResponseDto;
 import com.example.bankcards.dto.response.TransferResponseDto;
 import com.example.bankcards.dto.response.WithdrawalResponseDto;
 
 public interface TransferService {
 
-    WithdrawalResponseDto withdrawal(String email, WithdrawalRequestDto withdrawalRequestDto);
+    WithdrawalResponseDto withdrawal(String email, String idempotencyKey, WithdrawalRequestDto withdrawalRequestDto);
 
-    RechargeResponseDto recharge(String email, RechargeRequestDto rechargeRequestDto);
+    RechargeResponseDto recharge(String email, String idempotencyKey, RechargeRequestDto rechargeRequestDto);
 
-    TransferResponseDto transfer(String email, TransferRequestDto transferRequestDto);
+    TransferResponseDto transfer(String email, String idempotencyKey, TransferRequestDto transferRequestDto);
+
+    BulkTransferResponseDto bulkTransfer(String email, String idempotencyKey, BulkTransferRequestDto bulkTransferRequestDto);
 }
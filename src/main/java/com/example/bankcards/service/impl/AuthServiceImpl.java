@@ -6,17 +6,18 @@ import com.example.bankcards.dto.request.RegisterUserRequestDto;
 import com.example.bankcards.exception.LoginFailedException;
 import com.example.bankcards.exception.PasswordsNotTheSameException;
 import com.example.bankcards.exception.RegistrationFailedException;
-import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.model.User;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.service.AuthService;
 import com.example.bankcards.service.UserService;
 import com.example.bankcards.util.JwtAccessTokenUtils;
+import com.example.bankcards.util.UserDetailsWrapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -31,16 +32,16 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public JwtResponseDto createAuthToken(LoginUserRequestDto user) {
+        Authentication authentication;
         try {
             log.info("Attempting authentication for user: {}", user.getUsername());
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(user.getUsername(), user.getPassword()));
+            authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(user.getUsername(), user.getPassword()));
         } catch (BadCredentialsException badCredentialsException) {
             log.error("error: {}", badCredentialsException.getMessage());
             throw new LoginFailedException("Invalid username or password");
         }
 
-        User userDB = userRepository.findByUsername(user.getUsername()).orElseThrow(() ->
-                new UserNotFoundException(String.format("User with username %s was not found", user.getUsername())));
+        User userDB = ((UserDetailsWrapper) authentication.getPrincipal()).getUser();
 
         log.info("User {} authenticated successfully", user.getUsername());
         return new JwtResponseDto(jwtAccessTokenUtils.generateAccessToken(userDB));
@@ -55,7 +56,7 @@ public class AuthServiceImpl implements AuthService {
             throw new PasswordsNotTheSameException("Passwords should be the same");
         }
 
-        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
+        if (userRepository.existsByUsername(user.getUsername())) {
             log.error("Email {} is already in use", user.getUsername());
             throw new RegistrationFailedException(String.format("User with login %s already exists in the system", user.getUsername()));
         }
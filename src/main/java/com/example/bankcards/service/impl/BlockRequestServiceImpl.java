@@ -67,18 +67,21 @@ public class BlockRequestServiceImpl implements BlockRequestService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<BlockRequestDto> findAll(PageRequest pageRequest) {
         return blockRequestRepository.findAll(pageRequest)
                 .map(blockRequestMapper::toDto);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<BlockRequestDto> findAllByCardId(UUID id, PageRequest pageRequest) {
         return blockRequestRepository.findByCardId(id, pageRequest)
                 .map(blockRequestMapper::toDto);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<BlockRequestDto> findAllByUserId(UUID id, PageRequest pageRequest) {
         return blockRequestRepository.findByUserId(id, pageRequest)
                 .map(blockRequestMapper::toDto);
@@ -7,6 +7,10 @@ import com.example.bankcards.dto.request.StatusCardRequestDto;
 import com.example.bankcards.exception.CardAlreadyExistException;
 import com.example.bankcards.exception.CardNotFoundException;
 import com.example.bankcards.exception.UserNotFoundException;
+import com.example.bankcards.util.CardLimitCache;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.CardNumberMasker;
+import com.example.bankcards.util.CardResolutionCache;
 import com.example.bankcards.util.Constants;
 import com.example.bankcards.util.mapper.CardMapper;
 import com.example.bankcards.model.Card;
@@ -14,6 +18,7 @@ import com.example.bankcards.model.Limit;
 import com.example.bankcards.model.User;
 import com.example.bankcards.model.enums.CardStatus;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LimitRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.service.CardService;
 import com.example.bankcards.util.PredicateFactory;
@@ -37,6 +42,10 @@ public class CardServiceImpl implements CardService {
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
     private final CardMapper cardMapper;
+    private final CardNumberHasher cardNumberHasher;
+    private final LimitRepository limitRepository;
+    private final CardLimitCache cardLimitCache;
+    private final CardResolutionCache cardResolutionCache;
 
     @Override
     @Transactional
@@ -46,7 +55,8 @@ public class CardServiceImpl implements CardService {
             throw new UserNotFoundException(String.format("User with id %s wasn't found", addCardRequestDto.getUserId()));
         });
 
-        if (cardRepository.existsCardByNumber(addCardRequestDto.getNumber())) {
+        String numberHash = cardNumberHasher.hash(addCardRequestDto.getNumber());
+        if (cardRepository.existsCardByNumberHash(numberHash)) {
             log.error("Card already exists");
             throw new CardAlreadyExistException("Card already exists");
         }
@@ -54,13 +64,12 @@ public class CardServiceImpl implements CardService {
         Card card = Card.builder()
                 .user(user)
                 .number(addCardRequestDto.getNumber())
+                .numberHash(numberHash)
+                .maskedNumber(CardNumberMasker.mask(addCardRequestDto.getNumber()))
                 .build();
 
-        Limit limit = new Limit();
-        limit.setCard(card);
-        card.setLimit(limit);
-
         cardRepository.save(card);
+        limitRepository.save(new Limit(card));
         log.info("Card with number {} was successfully saved", addCardRequestDto.getNumber());
         return cardMapper.toDto(card);
     }
@@ -74,6 +83,8 @@ public class CardServiceImpl implements CardService {
             throw new CardNotFoundException(String.format("Card with if %s wasn't found", id));
         }
         cardRepository.deleteById(id);
+        cardLimitCache.evict(id);
+        cardResolutionCache.evict(id);
         log.info("Card with id {} was successfully deleted", id);
     }
 
@@ -86,10 +97,12 @@ public class CardServiceImpl implements CardService {
         });
         card.setStatus(CardStatus.valueOf(status.getStatus()));
         cardRepository.save(card);
+        cardResolutionCache.evict(id);
         log.info("Card with id {} was successfully updated with status {}", card.getId(), status.getStatus());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CardDto> findAll(PageRequest pageRequest, FilterCardDto filterCardDto) {
 
         Specification<Card> spec = (root, query, cb) -> {
@@ -102,8 +115,9 @@ public class CardServiceImpl implements CardService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CardDto> findAllByUsername(String username, PageRequest pageRequest, FilterCardDto filterCardDto) {
-        log.info("Trying get all user's cards with username {}", username);
+        log.debug("Trying get all user's cards with username {}", username);
 
         Specification<Card> spec = (root, query, cb) -> {
             List<Predicate> predicates = PredicateFactory.formPredicates(cb, root, filterCardDto);
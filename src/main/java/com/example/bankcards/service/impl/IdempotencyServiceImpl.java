@@ -0,0 +1,220 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.exception.IdempotencyKeyConflictException;
+import com.example.bankcards.exception.InvalidIdempotencyKeyException;
+import com.example.bankcards.model.IdempotencyKey;
+import com.example.bankcards.model.enums.OperationType;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
+import com.example.bankcards.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Stores the response of a card operation under the client's {@code Idempotency-Key}. The key row is inserted
+ * in the operation's own transaction, so it commits or rolls back together with the balance change, and a
+ * concurrent duplicate waits on the unique index until the first request finishes. Completed responses are
+ * also kept in memory, so repeated retries are answered before a transaction is opened.
+ */
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_PART_SUFFIX_LENGTH = 11;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final int cleanupBatchSize;
+    private final Cache<CacheKey, StoredResponse> responseCache;
+
+    public IdempotencyServiceImpl(IdempotencyKeyRepository idempotencyKeyRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${idempotency.ttl}") Duration ttl,
+                                  @Value("${idempotency.cache.maximum-size}") long cacheMaximumSize,
+                                  @Value("${idempotency.cleanup.batch-size}") int cleanupBatchSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.cleanupBatchSize = cleanupBatchSize;
+        this.responseCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public <T> Optional<T> findCachedResponse(String username, String idempotencyKey, OperationType operationType,
+                                              Object request, Class<T> responseType) {
+        if (idempotencyKey == null) {
+            return Optional.empty();
+        }
+        validateKey(idempotencyKey, MAX_KEY_LENGTH);
+
+        StoredResponse storedResponse = responseCache.getIfPresent(new CacheKey(username, idempotencyKey));
+        if (storedResponse == null) {
+            return Optional.empty();
+        }
+        return Optional.of(replay(username, idempotencyKey, storedResponse, hash(operationType, request), responseType));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> Optional<T> reserve(String username, String idempotencyKey, OperationType operationType,
+                                   Object request, Class<T> responseType) {
+        if (idempotencyKey == null) {
+            return Optional.empty();
+        }
+        validateKey(idempotencyKey, MAX_KEY_LENGTH);
+
+        String requestHash = hash(operationType, request);
+        StoredResponse cachedResponse = responseCache.getIfPresent(new CacheKey(username, idempotencyKey));
+        if (cachedResponse != null) {
+            return Optional.of(replay(username, idempotencyKey, cachedResponse, requestHash, responseType));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (idempotencyKeyRepository.reserve(username, idempotencyKey, requestHash, now, now.plus(ttl)) > 0) {
+            return Optional.empty();
+        }
+
+        IdempotencyKey storedKey = idempotencyKeyRepository
+                .findForUpdateByUsernameAndIdempotencyKey(username, idempotencyKey)
+                .orElseThrow(() -> {
+                    log.error("Idempotency key {} of user {} disappeared while it was reserved", idempotencyKey, username);
+                    return new IdempotencyKeyConflictException(
+                            String.format("Idempotency key %s is being processed, please retry", idempotencyKey));
+                });
+
+        if (storedKey.getResponseBody() == null) {
+            if (!storedKey.getRequestHash().equals(requestHash)) {
+                throw keyReused(username, idempotencyKey);
+            }
+            log.info("Idempotency key {} of user {} has no stored response, repeating the operation", idempotencyKey, username);
+            return Optional.empty();
+        }
+
+        StoredResponse storedResponse = new StoredResponse(storedKey.getRequestHash(), storedKey.getResponseBody());
+        responseCache.put(new CacheKey(username, idempotencyKey), storedResponse);
+        return Optional.of(replay(username, idempotencyKey, storedResponse, requestHash, responseType));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> T complete(String username, String idempotencyKey, OperationType operationType,
+                          Object request, T response) {
+        if (idempotencyKey == null) {
+            return response;
+        }
+
+        String responseBody = toJson(response);
+        idempotencyKeyRepository.complete(username, idempotencyKey, responseBody);
+
+        StoredResponse storedResponse = new StoredResponse(hash(operationType, request), responseBody);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                responseCache.put(new CacheKey(username, idempotencyKey), storedResponse);
+            }
+        });
+        return response;
+    }
+
+    /**
+     * Key under which one part of a request executed in several transactions is stored, so every part is
+     * replayed or repeated on its own.
+     */
+    @Override
+    public String partKey(String idempotencyKey, int part) {
+        if (idempotencyKey == null) {
+            return null;
+        }
+        validateKey(idempotencyKey, MAX_KEY_LENGTH - MAX_PART_SUFFIX_LENGTH);
+        return idempotencyKey + "#" + part;
+    }
+
+    @Override
+    @Scheduled(cron = "${idempotency.cleanup.cron}")
+    public void deleteExpiredKeys() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = 0;
+        int batch;
+        do {
+            batch = idempotencyKeyRepository.deleteExpired(now, cleanupBatchSize);
+            deleted += batch;
+        } while (batch == cleanupBatchSize);
+
+        if (deleted > 0) {
+            log.info("{} expired idempotency keys were deleted", deleted);
+        }
+    }
+
+    private <T> T replay(String username, String idempotencyKey, StoredResponse storedResponse,
+                         String requestHash, Class<T> responseType) {
+        if (!storedResponse.requestHash().equals(requestHash)) {
+            throw keyReused(username, idempotencyKey);
+        }
+        log.info("Replaying stored response for idempotency key {} of user {}", idempotencyKey, username);
+        try {
+            return objectMapper.readValue(storedResponse.responseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response of idempotency key can't be read", e);
+        }
+    }
+
+    private IdempotencyKeyConflictException keyReused(String username, String idempotencyKey) {
+        log.error("Idempotency key {} of user {} was reused for a different request", idempotencyKey, username);
+        return new IdempotencyKeyConflictException(
+                String.format("Idempotency key %s was already used for a different request", idempotencyKey));
+    }
+
+    private void validateKey(String idempotencyKey, int maxLength) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > maxLength) {
+            log.error("Idempotency key of length {} was rejected", idempotencyKey.length());
+            throw new InvalidIdempotencyKeyException(
+                    String.format("Idempotency key must be between 1 and %d characters", maxLength));
+        }
+    }
+
+    private String hash(OperationType operationType, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operationType.name().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(toJson(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Value can't be written as JSON", e);
+        }
+    }
+
+    private record CacheKey(String username, String idempotencyKey) {
+    }
+
+    private record StoredResponse(String requestHash, String responseBody) {
+    }
+}
@@ -7,6 +7,7 @@ import com.example.bankcards.util.mapper.LimitMapper;
 import com.example.bankcards.model.Limit;
 import com.example.bankcards.repository.LimitRepository;
 import com.example.bankcards.service.LimitService;
+import com.example.bankcards.util.CardLimitCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,7 @@ public class LimitServiceImpl implements LimitService {
 
     private final LimitRepository limitRepository;
     private final LimitMapper limitMapper;
+    private final CardLimitCache cardLimitCache;
 
     @Override
     public LimitDto updateLimit(LimitRequestDto limitRequestDto, boolean isDaily) {
@@ -36,6 +38,7 @@ public class LimitServiceImpl implements LimitService {
             limit.setMonthlyLimit(limitRequestDto.getLimit());
         }
         limitRepository.save(limit);
+        cardLimitCache.evict(cardId);
         log.info("Limit of card was successfully updated, daily limit: {}, monthly limit: {}",
                 limit.getDailyLimit(), limit.getMonthlyLimit());
         return limitMapper.toDto(limit);
@@ -0,0 +1,51 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.service.CacheInvalidationBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers invalidations to the caches of this node only. Inside a transaction the key is evicted after commit,
+ * so a concurrent reader can't put the old value back before the change is visible.
+ */
+@Service
+@ConditionalOnProperty(name = "cache.invalidation.mode", havingValue = "local", matchIfMissing = true)
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final Map<String, List<Listener>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void invalidate(String cacheName, UUID key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(cacheName, key);
+                }
+            });
+        } else {
+            deliver(cacheName, key);
+        }
+    }
+
+    @Override
+    public void subscribe(String cacheName, Listener listener) {
+        listeners.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    protected void deliver(String cacheName, UUID key) {
+        listeners.getOrDefault(cacheName, List.of()).forEach(listener -> listener.invalidate(key));
+    }
+
+    protected void deliverAll() {
+        listeners.values().forEach(cacheListeners -> cacheListeners.forEach(Listener::invalidateAll));
+    }
+}
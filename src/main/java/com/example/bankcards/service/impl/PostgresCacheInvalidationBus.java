@@ -0,0 +1,114 @@
+package com.example.bankcards.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Spreads invalidations to every node through Postgres LISTEN/NOTIFY. The notification is sent in the caller's
+ * transaction, so Postgres delivers it only if that transaction commits. Each node listens on its own
+ * connection outside the pool; after a reconnect all caches are cleared, because notifications sent while
+ * the node wasn't listening are lost.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "cache.invalidation.mode", havingValue = "postgres")
+public class PostgresCacheInvalidationBus extends LocalCacheInvalidationBus {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+    private final Duration pollTimeout;
+    private final Duration reconnectDelay;
+    private final Thread listenerThread;
+    private volatile boolean running = true;
+
+    public PostgresCacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                        DataSourceProperties dataSourceProperties,
+                                        @Value("${cache.invalidation.channel}") String channel,
+                                        @Value("${cache.invalidation.poll-timeout}") Duration pollTimeout,
+                                        @Value("${cache.invalidation.reconnect-delay}") Duration reconnectDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.pollTimeout = pollTimeout;
+        this.reconnectDelay = reconnectDelay;
+        this.listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        this.listenerThread.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listenerThread.interrupt();
+    }
+
+    @Override
+    public void invalidate(String cacheName, UUID key) {
+        super.invalidate(cacheName, key);
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+        }, channel, cacheName + ":" + key);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                deliverAll();
+                log.info("Listening for cache invalidations on channel {}", channel);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Cache invalidation listener lost its connection, reconnecting in {}", reconnectDelay, e);
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        int separator = payload.lastIndexOf(':');
+        try {
+            deliver(payload.substring(0, separator), UUID.fromString(payload.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            log.warn("Cache invalidation {} was ignored", payload);
+        }
+    }
+}
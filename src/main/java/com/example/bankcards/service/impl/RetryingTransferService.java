@@ -0,0 +1,124 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.request.BulkTransferRequestDto;
+import com.example.bankcards.dto.request.RechargeRequestDto;
+import com.example.bankcards.dto.request.TransferRequestDto;
+import com.example.bankcards.dto.request.WithdrawalRequestDto;
+import com.example.bankcards.dto.response.BulkTransferResponseDto;
+import com.example.bankcards.dto.response.RechargeResponseDto;
+import com.example.bankcards.dto.response.TransferResponseDto;
+import com.example.bankcards.dto.response.WithdrawalResponseDto;
+import com.example.bankcards.exception.CardStatusException;
+import com.example.bankcards.model.enums.OperationResult;
+import com.example.bankcards.model.enums.OperationType;
+import com.example.bankcards.service.IdempotencyService;
+import com.example.bankcards.service.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs every card operation in its own transaction and repeats it when the commit
+ * loses a version check or a lock (optimistic conflict, deadlock, lock timeout).
+ * A retry with an already completed idempotency key is answered from memory without a transaction.
+ * Every executed operation is timed as card.operation, tagged with its type and result; the time includes
+ * the commit and all retries.
+ */
+@Service
+@Primary
+@Slf4j
+@RequiredArgsConstructor
+public class RetryingTransferService implements TransferService {
+
+    private final TransferServiceImpl transferService;
+    private final IdempotencyService idempotencyService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${card.locking.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${card.locking.retry-backoff}")
+    private Duration retryBackoff;
+
+    @Override
+    public WithdrawalResponseDto withdrawal(String email, String idempotencyKey, WithdrawalRequestDto withdrawalRequestDto) {
+        return idempotencyService.findCachedResponse(email, idempotencyKey, OperationType.WITHDRAWAL,
+                        withdrawalRequestDto, WithdrawalResponseDto.class)
+                .orElseGet(() -> retry(OperationType.WITHDRAWAL, () -> transferService.withdrawal(email, idempotencyKey, withdrawalRequestDto)));
+    }
+
+    @Override
+    public RechargeResponseDto recharge(String email, String idempotencyKey, RechargeRequestDto rechargeRequestDto) {
+        return idempotencyService.findCachedResponse(email, idempotencyKey, OperationType.RECHARGE,
+                        rechargeRequestDto, RechargeResponseDto.class)
+                .orElseGet(() -> retry(OperationType.RECHARGE, () -> transferService.recharge(email, idempotencyKey, rechargeRequestDto)));
+    }
+
+    @Override
+    public TransferResponseDto transfer(String email, String idempotencyKey, TransferRequestDto transferRequestDto) {
+        return idempotencyService.findCachedResponse(email, idempotencyKey, OperationType.TRANSFER,
+                        transferRequestDto, TransferResponseDto.class)
+                .orElseGet(() -> retry(OperationType.TRANSFER, () -> transferService.transfer(email, idempotencyKey, transferRequestDto)));
+    }
+
+    @Override
+    public BulkTransferResponseDto bulkTransfer(String email, String idempotencyKey, BulkTransferRequestDto bulkTransferRequestDto) {
+        return meterRegistry.timer("card.bulk-transfer")
+                .record(() -> transferService.bulkTransfer(email, idempotencyKey, bulkTransferRequestDto));
+    }
+
+    private <T> T retry(OperationType operationType, Supplier<T> operation) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        OperationResult result = OperationResult.FAILED;
+        String exception = "none";
+        try {
+            T response = attempt(operationType, operation);
+            result = OperationResult.SUCCESSFULLY;
+            return response;
+        } catch (CardStatusException cardStatusException) {
+            result = cardStatusException.getOperationResult();
+            exception = cardStatusException.getClass().getSimpleName();
+            throw cardStatusException;
+        } catch (RuntimeException runtimeException) {
+            exception = runtimeException.getClass().getSimpleName();
+            throw runtimeException;
+        } finally {
+            sample.stop(meterRegistry.timer("card.operation",
+                    "operation", operationType.name(), "result", result.name(), "exception", exception));
+        }
+    }
+
+    private <T> T attempt(OperationType operationType, Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (ConcurrencyFailureException concurrencyFailureException) {
+                if (attempt >= maxAttempts) {
+                    log.error("Card operation failed after {} attempts: {}", attempt, concurrencyFailureException.getMessage());
+                    throw concurrencyFailureException;
+                }
+                log.warn("Concurrent card update detected, retrying operation (attempt {} of {})", attempt + 1, maxAttempts);
+                meterRegistry.counter("card.operation.retries", "operation", operationType.name()).increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(retryBackoff.toMillis() * attempt + 1));
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry card operation", interruptedException);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.bankcards.service.impl;
 
+import com.example.bankcards.dto.CursorPageDto;
 import com.example.bankcards.dto.TransactionDto;
 import com.example.bankcards.dto.TransactionFilterDto;
 import com.example.bankcards.util.Constants;
@@ -10,27 +11,42 @@ import com.example.bankcards.model.enums.OperationType;
 import com.example.bankcards.repository.TransactionRepository;
 import com.example.bankcards.service.TransactionService;
 import com.example.bankcards.util.EnumValidation;
+import com.example.bankcards.util.ExportFormat;
 import com.example.bankcards.util.PredicateFactory;
+import com.example.bankcards.util.TransactionCursor;
+import com.example.bankcards.util.TransactionExportWriter;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
 
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc(Constants.TIMESTAMP_COLUMN), Sort.Order.desc("id"));
+
     private final TransactionRepository transactionRepository;
     private final TransactionMapper transactionMapper;
+    private final TransactionExportWriter transactionExportWriter;
+    private final EntityManager entityManager;
 
 
+    @Transactional(readOnly = true)
     public Page<TransactionDto> findAll(PageRequest pageRequest, TransactionFilterDto transactionFilterDto) {
 
         OperationType operationTypeEnum = EnumValidation.safeParseEnum(OperationType.class, transactionFilterDto.operation());
@@ -50,26 +66,109 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<TransactionDto> findAllByCardId(UUID id, PageRequest pageRequest) {
         return transactionRepository.findByCardIdOrderByTimestampDesc(id, pageRequest)
                 .map(transactionMapper::toDto);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<TransactionDto> findAllByUserId(UUID id, PageRequest pageRequest) {
         return transactionRepository.findByCardUserIdOrderByTimestampDesc(id, pageRequest)
                 .map(transactionMapper::toDto);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<TransactionDto> findAllByUsername(String username, PageRequest pageRequest) {
         return transactionRepository.findByCardUserUsernameOrderByTimestampDesc(username, pageRequest)
                 .map(transactionMapper::toDto);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<TransactionDto> findAllByUsernameAndCardId(String username, UUID id, PageRequest pageRequest) {
         return transactionRepository.findByCardUserUsernameAndCardIdOrderByTimestampDesc(username, id, pageRequest)
                 .map(transactionMapper::toDto);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<TransactionDto> scrollAll(String after, int pageSize, TransactionFilterDto transactionFilterDto) {
+        TransactionCursor cursor = TransactionCursor.decode(after);
+
+        OperationType operationTypeEnum = EnumValidation.safeParseEnum(OperationType.class, transactionFilterDto.operation());
+        OperationResult operationResultEnum = EnumValidation.safeParseEnum(OperationResult.class, transactionFilterDto.operationResult());
+
+        Specification<Transaction> spec = (root, query, cb) -> {
+            List<Predicate> predicates = PredicateFactory.formPredicates(cb, root,
+                    transactionFilterDto,
+                    operationTypeEnum,
+                    operationResultEnum);
+            predicates.add(PredicateFactory.formKeysetPredicate(cb, root, cursor));
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+
+        List<Transaction> transactions = transactionRepository.findBy(spec, query -> query
+                .sortBy(KEYSET_SORT)
+                .limit(pageSize + 1)
+                .all());
+        return toCursorPage(transactions, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<TransactionDto> scrollAllByCardId(UUID id, String after, int pageSize) {
+        TransactionCursor cursor = TransactionCursor.decode(after);
+        return toCursorPage(transactionRepository.findByCardIdBefore(
+                id, cursor.timestamp(), cursor.id(), Limit.of(pageSize + 1)), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<TransactionDto> scrollAllByUserId(UUID id, String after, int pageSize) {
+        TransactionCursor cursor = TransactionCursor.decode(after);
+        return toCursorPage(transactionRepository.findByCardUserIdBefore(
+                id, cursor.timestamp(), cursor.id(), Limit.of(pageSize + 1)), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<TransactionDto> scrollAllByUsername(String username, String after, int pageSize) {
+        TransactionCursor cursor = TransactionCursor.decode(after);
+        return toCursorPage(transactionRepository.findByCardUserUsernameBefore(
+                username, cursor.timestamp(), cursor.id(), Limit.of(pageSize + 1)), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<TransactionDto> scrollAllByUsernameAndCardId(String username, UUID id, String after, int pageSize) {
+        TransactionCursor cursor = TransactionCursor.decode(after);
+        return toCursorPage(transactionRepository.findByCardUserUsernameAndCardIdBefore(
+                username, id, cursor.timestamp(), cursor.id(), Limit.of(pageSize + 1)), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportByUserId(UUID id, ExportFormat format, OutputStream outputStream) throws IOException {
+        try (Stream<Transaction> transactions = transactionRepository.streamByCardUserId(id)) {
+            transactionExportWriter.write(transactions.map(this::toDetachedDto), format, outputStream);
+        }
+    }
+
+    // Exported rows are detached right away so the persistence context stays small for any history size
+    private TransactionDto toDetachedDto(Transaction transaction) {
+        TransactionDto transactionDto = transactionMapper.toDto(transaction);
+        entityManager.detach(transaction);
+        return transactionDto;
+    }
+
+    // One extra row is fetched to learn whether a next page exists without counting
+    private CursorPageDto<TransactionDto> toCursorPage(List<Transaction> transactions, int pageSize) {
+        boolean hasNext = transactions.size() > pageSize;
+        List<Transaction> content = hasNext ? transactions.subList(0, pageSize) : transactions;
+        String nextCursor = hasNext ? TransactionCursor.of(content.get(content.size() - 1)).encode() : null;
+        return new CursorPageDto<>(content.stream().map(transactionMapper::toDto).toList(), nextCursor);
+    }
 }
@@ -1,8 +1,11 @@
 package com.example.bankcards.service.impl;
 
+import com.example.bankcards.dto.request.BulkTransferRequestDto;
 import com.example.bankcards.dto.request.RechargeRequestDto;
 import com.example.bankcards.dto.request.TransferRequestDto;
 import com.example.bankcards.dto.request.WithdrawalRequestDto;
+import com.example.bankcards.dto.response.BulkTransferItemDto;
+import com.example.bankcards.dto.response.BulkTransferResponseDto;
 import com.example.bankcards.dto.response.RechargeResponseDto;
 import com.example.bankcards.dto.response.TransferResponseDto;
 import com.example.bankcards.dto.response.WithdrawalResponseDto;
@@ -14,16 +17,38 @@ import com.example.bankcards.model.Transaction;
 import com.example.bankcards.model.enums.OperationResult;
 import com.example.bankcards.model.enums.OperationType;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardUsageRepository;
 import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.repository.projection.CardResolution;
+import com.example.bankcards.service.IdempotencyService;
 import com.example.bankcards.service.TransferService;
+import com.example.bankcards.util.CardLockingMode;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.CardResolutionCache;
 import com.example.bankcards.util.CardValidationUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -34,14 +59,36 @@ public class TransferServiceImpl implements TransferService {
     private final CardValidationUtils cardValidationUtils;
     private final TransactionRepository transactionRepository;
     private final CardMapper cardMapper;
+    private final CardUsageRepository cardUsageRepository;
+    private final CardNumberHasher cardNumberHasher;
+    private final CardResolutionCache cardResolutionCache;
+    private final IdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${card.locking.mode}")
+    private CardLockingMode lockingMode;
+
+    @Value("${card.bulk-transfer.chunk-size}")
+    private int bulkTransferChunkSize;
 
     @Override
     @Transactional(noRollbackFor = {CardLimitException.class, CardBalanceException.class, CardStatusException.class})
-    public WithdrawalResponseDto withdrawal(String email, WithdrawalRequestDto withdrawalRequestDto) {
+    public WithdrawalResponseDto withdrawal(String email, String idempotencyKey, WithdrawalRequestDto withdrawalRequestDto) {
+
+        Optional<WithdrawalResponseDto> storedResponse = idempotencyService.reserve(email, idempotencyKey,
+                OperationType.WITHDRAWAL, withdrawalRequestDto, WithdrawalResponseDto.class);
+        if (storedResponse.isPresent()) {
+            return storedResponse.get();
+        }
 
         String cardNumber = withdrawalRequestDto.getNumber();
         BigDecimal withdrawalAmount = withdrawalRequestDto.getAmount();
 
+        if (lockingMode == CardLockingMode.ATOMIC) {
+            return idempotencyService.complete(email, idempotencyKey, OperationType.WITHDRAWAL, withdrawalRequestDto,
+                    debit(email, cardNumber, withdrawalAmount));
+        }
+
         Card card = findCardByUsernameAndNumber(email, cardNumber);
 
         cardValidationUtils.validateStatus(card, withdrawalAmount, OperationType.WITHDRAWAL);
@@ -50,12 +97,13 @@ public class TransferServiceImpl implements TransferService {
 
         card.setBalance(card.getBalance().subtract(withdrawalAmount));
         cardRepository.save(card);
+        cardUsageRepository.recordWithdrawal(card.getId(), withdrawalAmount, LocalDate.now());
 
         Transaction transaction = TransactionFactory
                 .create(card, withdrawalAmount, OperationType.WITHDRAWAL, OperationResult.SUCCESSFULLY);
         transactionRepository.save(transaction);
 
-        return WithdrawalResponseDto.builder()
+        WithdrawalResponseDto withdrawalResponseDto = WithdrawalResponseDto.builder()
                 .cardId(card.getId())
                 .number(cardMapper.mapNumberFromCardToCardDto(card.getNumber()))
                 .withdrawalAmount(withdrawalAmount)
@@ -63,11 +111,19 @@ public class TransferServiceImpl implements TransferService {
                 .transferTime(LocalDateTime.now())
                 .userId(card.getUser().getId())
                 .build();
+        return idempotencyService.complete(email, idempotencyKey, OperationType.WITHDRAWAL, withdrawalRequestDto,
+                withdrawalResponseDto);
     }
 
     @Override
     @Transactional(noRollbackFor = {CardStatusException.class})
-    public RechargeResponseDto recharge(String email, RechargeRequestDto rechargeRequestDto) {
+    public RechargeResponseDto recharge(String email, String idempotencyKey, RechargeRequestDto rechargeRequestDto) {
+
+        Optional<RechargeResponseDto> storedResponse = idempotencyService.reserve(email, idempotencyKey,
+                OperationType.RECHARGE, rechargeRequestDto, RechargeResponseDto.class);
+        if (storedResponse.isPresent()) {
+            return storedResponse.get();
+        }
 
         String cardNumber = rechargeRequestDto.getNumber();
         BigDecimal rechargeAmount = rechargeRequestDto.getAmount();
@@ -83,7 +139,7 @@ public class TransferServiceImpl implements TransferService {
                 .create(card, rechargeAmount, OperationType.RECHARGE, OperationResult.SUCCESSFULLY);
         transactionRepository.save(transaction);
 
-        return RechargeResponseDto.builder()
+        RechargeResponseDto rechargeResponseDto = RechargeResponseDto.builder()
                 .cardId(card.getId())
                 .number(cardMapper.mapNumberFromCardToCardDto(card.getNumber()))
                 .rechargeAmount(rechargeAmount)
@@ -91,21 +147,142 @@ public class TransferServiceImpl implements TransferService {
                 .transferTime(LocalDateTime.now())
                 .userId(card.getUser().getId())
                 .build();
-
+        return idempotencyService.complete(email, idempotencyKey, OperationType.RECHARGE, rechargeRequestDto,
+                rechargeResponseDto);
     }
 
     @Override
     @Transactional(noRollbackFor = {CardBalanceException.class, CardStatusException.class, CardsAreTheSameException.class})
-    public TransferResponseDto transfer(String email, TransferRequestDto transferRequestDto) {
+    public TransferResponseDto transfer(String email, String idempotencyKey, TransferRequestDto transferRequestDto) {
+
+        Optional<TransferResponseDto> storedResponse = idempotencyService.reserve(email, idempotencyKey,
+                OperationType.TRANSFER, transferRequestDto, TransferResponseDto.class);
+        if (storedResponse.isPresent()) {
+            return storedResponse.get();
+        }
+
+        TransferResponseDto transferResponseDto = lockingMode == CardLockingMode.OPTIMISTIC
+                ? transfer(transferRequestDto, number -> findCardByUsernameAndNumber(email, number))
+                : transferResolved(email, transferRequestDto);
+        return idempotencyService.complete(email, idempotencyKey, OperationType.TRANSFER, transferRequestDto,
+                transferResponseDto);
+    }
+
+    /**
+     * Runs the transfers in chunks, one database transaction per chunk. Every chunk first locks all of its cards
+     * in id order, so concurrent bulk and single transfers always take the locks in the same order. A rejected
+     * transfer only fails its own item; a chunk that can't be committed fails all of its items and the next chunks
+     * still run. The idempotency key is stored per chunk, so a retry replays the committed chunks and repeats the rest.
+     */
+    @Override
+    public BulkTransferResponseDto bulkTransfer(String email, String idempotencyKey, BulkTransferRequestDto bulkTransferRequestDto) {
+        List<TransferRequestDto> transfers = bulkTransferRequestDto.getTransfers();
+        List<BulkTransferItemDto> results = new ArrayList<>(transfers.size());
+
+        for (int from = 0; from < transfers.size(); from += bulkTransferChunkSize) {
+            int offset = from;
+            List<TransferRequestDto> chunk = transfers.subList(from, Math.min(from + bulkTransferChunkSize, transfers.size()));
+            String chunkKey = idempotencyService.partKey(idempotencyKey, from / bulkTransferChunkSize);
+            try {
+                results.addAll(transactionTemplate.execute(status -> transferChunk(email, chunkKey, chunk, offset)));
+            } catch (DataAccessException | TransactionException e) {
+                log.error("Chunk of {} transfers starting at item {} was rolled back", chunk.size(), offset, e);
+                results.addAll(failedChunk(chunk, offset, HttpStatus.SERVICE_UNAVAILABLE,
+                        "Transfer wasn't executed, please try again later"));
+            } catch (IdempotencyKeyConflictException e) {
+                results.addAll(failedChunk(chunk, offset, HttpStatus.CONFLICT,
+                        String.format("Idempotency key %s was already used for a different request", idempotencyKey)));
+            } catch (RuntimeException e) {
+                log.error("Chunk of {} transfers starting at item {} failed", chunk.size(), offset, e);
+                results.addAll(failedChunk(chunk, offset, HttpStatus.INTERNAL_SERVER_ERROR, "Transfer wasn't executed"));
+            }
+        }
+
+        BulkTransferResponseDto bulkTransferResponseDto = summarize(results);
+        log.info("Bulk transfer of user {} finished: {} succeeded, {} failed", email,
+                bulkTransferResponseDto.getSucceeded(), bulkTransferResponseDto.getFailed());
+        return bulkTransferResponseDto;
+    }
+
+    private List<BulkTransferItemDto> transferChunk(String email, String chunkKey, List<TransferRequestDto> chunk, int offset) {
+        Optional<BulkTransferResponseDto> storedResponse = idempotencyService.reserve(email, chunkKey,
+                OperationType.TRANSFER, chunk, BulkTransferResponseDto.class);
+        if (storedResponse.isPresent()) {
+            return storedResponse.get().getResults();
+        }
+
+        Set<String> numberHashes = new HashSet<>();
+        for (TransferRequestDto transferRequestDto : chunk) {
+            numberHashes.add(cardNumberHasher.hash(transferRequestDto.getNumber()));
+            numberHashes.add(cardNumberHasher.hash(transferRequestDto.getTargetNumber()));
+        }
+        Map<String, Card> lockedCards = cardRepository.lockCardsByUserUsernameAndNumberHashes(email, numberHashes)
+                .stream()
+                .collect(Collectors.toMap(Card::getNumberHash, Function.identity()));
+
+        List<BulkTransferItemDto> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                TransferResponseDto transferResponseDto = transfer(chunk.get(i), number -> findLockedCard(lockedCards, number));
+                results.add(BulkTransferItemDto.builder()
+                        .index(offset + i)
+                        .code(HttpStatus.OK.value())
+                        .transfer(transferResponseDto)
+                        .build());
+            } catch (EntityNotFoundException e) {
+                results.add(failedItem(offset + i, HttpStatus.NOT_FOUND, e.getMessage()));
+            } catch (CardException e) {
+                results.add(failedItem(offset + i, HttpStatus.BAD_REQUEST, e.getMessage()));
+            }
+        }
+        idempotencyService.complete(email, chunkKey, OperationType.TRANSFER, chunk, summarize(results));
+        return results;
+    }
+
+    private BulkTransferResponseDto summarize(List<BulkTransferItemDto> results) {
+        int succeeded = (int) results.stream().filter(result -> result.getTransfer() != null).count();
+        return BulkTransferResponseDto.builder()
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
+    }
+
+    private List<BulkTransferItemDto> failedChunk(List<TransferRequestDto> chunk, int offset, HttpStatus status, String message) {
+        List<BulkTransferItemDto> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            results.add(failedItem(offset + i, status, message));
+        }
+        return results;
+    }
+
+    private Card findLockedCard(Map<String, Card> lockedCards, String number) {
+        Card card = lockedCards.get(cardNumberHasher.hash(number));
+        if (card == null) {
+            log.error("Card with number {} wasn't founded", number);
+            throw new CardNotFoundException(String.format("Card with number %s wasn't found", number));
+        }
+        return card;
+    }
+
+    private BulkTransferItemDto failedItem(int index, HttpStatus status, String message) {
+        return BulkTransferItemDto.builder()
+                .index(index)
+                .code(status.value())
+                .message(message)
+                .build();
+    }
+
+    private TransferResponseDto transfer(TransferRequestDto transferRequestDto, Function<String, Card> cardLookup) {
 
         String cardNumber = transferRequestDto.getNumber();
         String targetCardNumber = transferRequestDto.getTargetNumber();
         BigDecimal transferAmount = transferRequestDto.getAmount();
 
-        Card card = findCardByUsernameAndNumber(email, cardNumber);
+        Card card = cardLookup.apply(cardNumber);
         cardValidationUtils.validateStatus(card, transferAmount, OperationType.TRANSFER);
 
-        Card targetCard = findCardByUsernameAndNumber(email, targetCardNumber);
+        Card targetCard = cardLookup.apply(targetCardNumber);
         cardValidationUtils.validateStatus(targetCard, transferAmount, OperationType.TRANSFER);
         cardValidationUtils.validateNumbers(card, targetCard.getId(), transferAmount, OperationType.TRANSFER);
         cardValidationUtils.validateBalanceForTransfer(card, targetCard, transferAmount, OperationType.TRANSFER);
@@ -132,8 +309,124 @@ public class TransferServiceImpl implements TransferService {
                 .build();
     }
 
+    /**
+     * Resolves both cards through the {@link CardResolutionCache} and moves the money with two conditional updates
+     * on the locked rows, so neither card is loaded or decrypted. Both rows are locked in id order before anything
+     * else, also when the cache doesn't see both cards as active or the debit is rejected and the transfer falls
+     * back to the loaded cards, which reports the exact reason.
+     */
+    private TransferResponseDto transferResolved(String email, TransferRequestDto transferRequestDto) {
+
+        String numberHash = cardNumberHasher.hash(transferRequestDto.getNumber());
+        String targetNumberHash = cardNumberHasher.hash(transferRequestDto.getTargetNumber());
+        BigDecimal transferAmount = transferRequestDto.getAmount();
+
+        CardResolution card = resolveCard(email, numberHash, transferRequestDto.getNumber());
+        CardResolution targetCard = resolveCard(email, targetNumberHash, transferRequestDto.getTargetNumber());
+
+        if (card.id().equals(targetCard.id())) {
+            return transferLoaded(email, transferRequestDto, numberHash, targetNumberHash);
+        }
+
+        cardRepository.lockCardsByIdIn(List.of(card.id(), targetCard.id()));
+        LocalDate today = LocalDate.now();
+        if (!card.isActiveOn(today) || !targetCard.isActiveOn(today)) {
+            return transferLoaded(email, transferRequestDto, numberHash, targetNumberHash);
+        }
+
+        Optional<BigDecimal> balance = cardRepository.debit(card.id(), transferAmount);
+        if (balance.isEmpty()) {
+            return transferLoaded(email, transferRequestDto, numberHash, targetNumberHash);
+        }
+        if (cardRepository.credit(targetCard.id(), transferAmount) == 0) {
+            cardResolutionCache.discard(email, targetNumberHash);
+            log.warn("Card {} was changed after it had been cached, transfer will be retried", targetCard.id());
+            throw new ConcurrencyFailureException(String.format("Card with id %s was modified during transfer", targetCard.id()));
+        }
+
+        Transaction transaction = TransactionFactory.create(cardRepository.getReferenceById(card.id()),
+                cardRepository.getReferenceById(targetCard.id()), transferAmount, OperationType.TRANSFER,
+                OperationResult.SUCCESSFULLY);
+        transactionRepository.save(transaction);
+
+        return TransferResponseDto.builder()
+                .cardId(card.id())
+                .targetCardId(targetCard.id())
+                .number(card.maskedNumber())
+                .targetNumber(targetCard.maskedNumber())
+                .transferTime(LocalDateTime.now())
+                .balance(balance.get())
+                .transferAmount(transferAmount)
+                .userId(card.userId())
+                .build();
+    }
+
+    private TransferResponseDto transferLoaded(String email, TransferRequestDto transferRequestDto,
+                                               String numberHash, String targetNumberHash) {
+        TransferResponseDto transferResponseDto = transfer(transferRequestDto,
+                number -> findCardByUsernameAndNumber(email, number));
+        // The loaded cards passed validation, so at least one cached entry disagreed with the database
+        cardResolutionCache.discard(email, numberHash);
+        cardResolutionCache.discard(email, targetNumberHash);
+        return transferResponseDto;
+    }
+
+    private CardResolution resolveCard(String email, String numberHash, String number) {
+        return cardResolutionCache.get(email, numberHash).orElseThrow(() -> {
+            log.error("Card with number {} wasn't founded", number);
+            return new CardNotFoundException(String.format("Card with number %s wasn't found", number));
+        });
+    }
+
+    private WithdrawalResponseDto debit(String email, String cardNumber, BigDecimal withdrawalAmount) {
+        CardResolution card = resolveCard(email, cardNumberHasher.hash(cardNumber), cardNumber);
+        UUID cardId = card.id();
+
+        boolean withinLimits = cardUsageRepository.recordWithdrawalWithinLimits(cardId, withdrawalAmount, LocalDate.now()) > 0;
+        Optional<BigDecimal> remainingBalance = withinLimits
+                ? cardRepository.debit(cardId, withdrawalAmount)
+                : Optional.empty();
+
+        if (remainingBalance.isEmpty()) {
+            if (withinLimits) {
+                cardUsageRepository.releaseWithdrawal(cardId, withdrawalAmount);
+            }
+            rejectWithdrawal(email, cardNumber, withdrawalAmount);
+        }
+
+        Transaction transaction = TransactionFactory.create(cardRepository.getReferenceById(cardId),
+                withdrawalAmount, OperationType.WITHDRAWAL, OperationResult.SUCCESSFULLY);
+        transactionRepository.save(transaction);
+
+        return WithdrawalResponseDto.builder()
+                .cardId(cardId)
+                .number(cardMapper.mapNumberFromCardToCardDto(cardNumber))
+                .withdrawalAmount(withdrawalAmount)
+                .remainingBalance(remainingBalance.get())
+                .transferTime(LocalDateTime.now())
+                .userId(card.userId())
+                .build();
+    }
+
+    private void rejectWithdrawal(String email, String cardNumber, BigDecimal withdrawalAmount) {
+        Card card = findCardByUsernameAndNumber(email, cardNumber);
+
+        cardValidationUtils.validateStatus(card, withdrawalAmount, OperationType.WITHDRAWAL);
+        cardValidationUtils.validateBalance(card, withdrawalAmount, OperationType.WITHDRAWAL);
+        cardValidationUtils.validateLimit(card, withdrawalAmount, OperationType.WITHDRAWAL);
+
+        cardResolutionCache.discard(email, card.getNumberHash());
+        log.warn("Withdrawal from card {} was rejected by a concurrent update", card.getId());
+        throw new ConcurrencyFailureException(String.format("Card with id %s was modified during withdrawal", card.getId()));
+    }
+
     public Card findCardByUsernameAndNumber(String username, String number) {
-        return cardRepository.findCardByUserUsernameAndNumber(username, number).orElseThrow(() -> {
+        String numberHash = cardNumberHasher.hash(number);
+        Optional<Card> card = lockingMode == CardLockingMode.PESSIMISTIC
+                ? cardRepository.findCardForUpdateByUserUsernameAndNumberHash(username, numberHash)
+                : cardRepository.findCardByUserUsernameAndNumberHash(username, numberHash);
+
+        return card.orElseThrow(() -> {
             log.error("Card with number {} wasn't founded", number);
             throw new CardNotFoundException(String.format("Card with number %s wasn't found", number));
         });
@@ -1,5 +1,6 @@
 package com.example.bankcards.service.impl;
 
+import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.dto.request.BannedRequestDto;
 import com.example.bankcards.dto.request.RegisterUserRequestDto;
@@ -7,11 +8,14 @@ import com.example.bankcards.exception.ManageYourselfException;
 import com.example.bankcards.exception.RoleNotFoundException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.util.Constants;
+import com.example.bankcards.util.mapper.CardMapper;
 import com.example.bankcards.util.mapper.UserMapper;
 import com.example.bankcards.model.Role;
 import com.example.bankcards.model.User;
+import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.RoleRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.repository.projection.CardSummary;
 import com.example.bankcards.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,7 +25,10 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -31,6 +38,8 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final UserMapper userMapper;
+    private final CardRepository cardRepository;
+    private final CardMapper cardMapper;
     private final PasswordEncoder passwordEncoder;
 
     @Override
@@ -68,9 +77,17 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<UserDto> findAll(PageRequest pageRequest) {
-        return userRepository.findAll(pageRequest)
-                .map(userMapper::toDto);
+        Page<User> users = userRepository.findAll(pageRequest);
+        List<UUID> userIds = users.map(User::getId).getContent();
+
+        Map<UUID, List<CardDto>> cards = userIds.isEmpty() ? Map.of() : cardRepository.findCardSummariesByUserIdIn(userIds)
+                .stream()
+                .collect(Collectors.groupingBy(CardSummary::getUserId,
+                        Collectors.mapping(cardMapper::toDto, Collectors.toList())));
+
+        return users.map(user -> userMapper.toDto(user, cards.getOrDefault(user.getId(), List.of())));
     }
 
     @Override
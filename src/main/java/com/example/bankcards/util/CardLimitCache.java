@@ -0,0 +1,74 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.repository.LimitRepository;
+import com.example.bankcards.repository.projection.CardLimits;
+import com.example.bankcards.service.CacheInvalidationBus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through cache of daily and monthly limits by card id. Entries are evicted through the
+ * {@link CacheInvalidationBus} when a limit changes or a card is deleted, the TTL bounds how long a missed
+ * invalidation can keep a stale limit.
+ */
+@Component
+public class CardLimitCache {
+
+    public static final String CACHE_NAME = "card-limits";
+
+    private final LimitRepository limitRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final Cache<UUID, CardLimits> cache;
+
+    public CardLimitCache(LimitRepository limitRepository,
+                          CacheInvalidationBus cacheInvalidationBus,
+                          MeterRegistry meterRegistry,
+                          @Value("${card.limit-cache.maximum-size}") long maximumSize,
+                          @Value("${card.limit-cache.ttl}") Duration ttl) {
+        this.limitRepository = limitRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        cacheInvalidationBus.subscribe(CACHE_NAME, new CacheInvalidationBus.Listener() {
+            @Override
+            public void invalidate(UUID cardId) {
+                cache.invalidate(cardId);
+            }
+
+            @Override
+            public void invalidateAll() {
+                cache.invalidateAll();
+            }
+        });
+    }
+
+    /**
+     * Loads a missing entry outside the cache, see {@link CardResolutionCache#get}.
+     */
+    public Optional<CardLimits> get(UUID cardId) {
+        CardLimits limits = cache.getIfPresent(cardId);
+        if (limits != null) {
+            return Optional.of(limits);
+        }
+        Optional<CardLimits> loaded = limitRepository.findCardLimitsByCardId(cardId);
+        loaded.ifPresent(value -> cache.put(cardId, value));
+        return loaded;
+    }
+
+    public void evict(UUID cardId) {
+        cacheInvalidationBus.invalidate(CACHE_NAME, cardId);
+    }
+}
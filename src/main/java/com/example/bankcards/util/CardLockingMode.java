@@ -0,0 +1,8 @@
+package com.example.bankcards.util;
+
+public enum CardLockingMode {
+    OPTIMISTIC,
+    PESSIMISTIC,
+    // Withdrawals and transfers use conditional UPDATEs; recharges rely on the version check
+    ATOMIC
+}
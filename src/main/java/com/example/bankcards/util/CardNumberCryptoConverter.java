@@ -1,6 +1,8 @@
 package com.example.bankcards.util;
 
 import com.example.bankcards.exception.EncryptionFailedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 import lombok.extern.slf4j.Slf4j;
@@ -9,79 +11,94 @@ import org.springframework.beans.factory.annotation.Value;
 import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.util.Base64;
 
 @Converter
 @Slf4j
 public class CardNumberCryptoConverter implements AttributeConverter<String, String> {
 
-    @Value("${card.secret-key}")
-    private String SECRET_KEY;
+    private final SecretKeySpec keySpec;
+    private final String algorithm;
+    private final int ivLength;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Timer encryptTimer;
+    private final Timer decryptTimer;
 
-    @Value("${card.algorithm}")
-    private String ALGORITHM;
+    // Cipher is not thread-safe; one instance per thread keeps the provider lookup and key expansion off the hot path
+    private final ThreadLocal<Cipher> encryptCipher = ThreadLocal.withInitial(this::createCipher);
+    private final ThreadLocal<Cipher> decryptCipher = ThreadLocal.withInitial(this::createCipher);
 
-    @Value("${card.iv-length}")
-    private Integer IV_LENGTH;
+    public CardNumberCryptoConverter(@Value("${card.secret-key}") String secretKey,
+                                     @Value("${card.algorithm}") String algorithm,
+                                     @Value("${card.iv-length}") Integer ivLength,
+                                     @Value("${card.encryption}") String encryptionAlgorithm,
+                                     MeterRegistry meterRegistry) {
+        this.keySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), encryptionAlgorithm);
+        this.algorithm = algorithm;
+        this.ivLength = ivLength;
 
-    @Value("${card.encryption}")
-    private String ENCRYPTION_ALGORITHM;
-
-    @Value("${card.hashing}")
-    private String HASHING_ALGORITHM;
-
-    private Cipher getCipher(int mode, byte[] ivBytes) throws Exception {
-        SecretKeySpec keySpec = new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), ENCRYPTION_ALGORITHM);
-        IvParameterSpec iv = new IvParameterSpec(ivBytes);
-        Cipher cipher = Cipher.getInstance(ALGORITHM);
-        cipher.init(mode, keySpec, iv);
-        return cipher;
+        this.encryptTimer = Timer.builder("card.crypto")
+                .description("Time to encrypt or decrypt a card number")
+                .tag("operation", "encrypt")
+                .register(meterRegistry);
+        this.decryptTimer = Timer.builder("card.crypto")
+                .description("Time to encrypt or decrypt a card number")
+                .tag("operation", "decrypt")
+                .register(meterRegistry);
     }
 
-    private byte[] generateDeterministicIv(String input) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance(HASHING_ALGORITHM);
-        byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-        byte[] iv = new byte[IV_LENGTH];
-        System.arraycopy(hash, 0, iv, 0, IV_LENGTH);
-        return iv;
+    private Cipher createCipher() {
+        try {
+            return Cipher.getInstance(algorithm);
+        } catch (GeneralSecurityException e) {
+            log.error("Failed to create cipher {}", algorithm, e);
+            throw new EncryptionFailedException("Card encryption failed");
+        }
     }
 
     @Override
     public String convertToDatabaseColumn(String attribute) {
+        Timer.Sample sample = Timer.start();
         try {
-            byte[] iv = generateDeterministicIv(attribute);
-            Cipher cipher = getCipher(Cipher.ENCRYPT_MODE, iv);
-            byte[] encrypted = cipher.doFinal(attribute.getBytes(StandardCharsets.UTF_8));
+            byte[] iv = new byte[ivLength];
+            secureRandom.nextBytes(iv);
+
+            Cipher cipher = encryptCipher.get();
+            cipher.init(Cipher.ENCRYPT_MODE, keySpec, new IvParameterSpec(iv));
+
+            byte[] plain = attribute.getBytes(StandardCharsets.UTF_8);
+            byte[] encryptedWithIv = new byte[ivLength + cipher.getOutputSize(plain.length)];
+            System.arraycopy(iv, 0, encryptedWithIv, 0, ivLength);
+            cipher.doFinal(plain, 0, plain.length, encryptedWithIv, ivLength);
 
-            byte[] encryptedWithIv = ByteBuffer.allocate(iv.length + encrypted.length)
-                    .put(iv)
-                    .put(encrypted)
-                    .array();
             return Base64.getEncoder().encodeToString(encryptedWithIv);
         } catch (Exception e) {
             log.error("Failed to encrypt card number", e);
             throw new EncryptionFailedException("Card encryption failed");
+        } finally {
+            sample.stop(encryptTimer);
         }
     }
 
     @Override
     public String convertToEntityAttribute(String dbData) {
+        Timer.Sample sample = Timer.start();
         try {
             byte[] encryptedIvAndText = Base64.getDecoder().decode(dbData);
-            ByteBuffer byteBuffer = ByteBuffer.wrap(encryptedIvAndText);
-            byte[] iv = new byte[IV_LENGTH];
-            byteBuffer.get(iv);
-            byte[] encrypted = new byte[byteBuffer.remaining()];
-            byteBuffer.get(encrypted);
 
-            Cipher cipher = getCipher(Cipher.DECRYPT_MODE, iv);
-            return new String(cipher.doFinal(encrypted), StandardCharsets.UTF_8);
+            Cipher cipher = decryptCipher.get();
+            cipher.init(Cipher.DECRYPT_MODE, keySpec, new IvParameterSpec(encryptedIvAndText, 0, ivLength));
+
+            byte[] decrypted = cipher.doFinal(encryptedIvAndText, ivLength, encryptedIvAndText.length - ivLength);
+            return new String(decrypted, StandardCharsets.UTF_8);
         } catch (Exception e) {
             log.error("Failed to decrypt card number", e);
             throw new EncryptionFailedException("Card decryption failed");
+        } finally {
+            sample.stop(decryptTimer);
         }
     }
 }
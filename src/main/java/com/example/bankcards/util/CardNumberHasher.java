@@ -0,0 +1,40 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.EncryptionFailedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+@Component
+@Slf4j
+public class CardNumberHasher {
+
+    private final SecretKeySpec keySpec;
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::createMac);
+
+    public CardNumberHasher(@Value("${card.hash-key}") String hashKey,
+                            @Value("${card.hashing}") String hashingAlgorithm) {
+        this.keySpec = new SecretKeySpec(hashKey.getBytes(StandardCharsets.UTF_8), hashingAlgorithm);
+    }
+
+    public String hash(String number) {
+        return HexFormat.of().formatHex(mac.get().doFinal(number.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mac createMac() {
+        try {
+            Mac instance = Mac.getInstance(keySpec.getAlgorithm());
+            instance.init(keySpec);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            log.error("Failed to initialize card number hashing", e);
+            throw new EncryptionFailedException("Card number hashing failed");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.bankcards.util;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class CardNumberMasker {
+
+    private static final int VISIBLE_DIGITS = 4;
+
+    public String mask(String number) {
+        if (number == null) {
+            return null;
+        }
+        StringBuilder str = new StringBuilder(number);
+        for (int i = 0; i < number.length() - VISIBLE_DIGITS; i++) {
+            if (number.charAt(i) != ' ') {
+                str.replace(i, i + 1, "*");
+            }
+        }
+        return str.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.projection.CardResolution;
+import com.example.bankcards.service.CacheInvalidationBus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through cache of the id, status and expiration date of a card by its owner and number hash. Entries are
+ * evicted through the {@link CacheInvalidationBus} when the status of a card changes or the card is deleted. Since
+ * entries aren't keyed by card id, an eviction scans the cache; it only happens on these rare admin operations.
+ */
+@Component
+public class CardResolutionCache {
+
+    public static final String CACHE_NAME = "card-resolutions";
+
+    private final CardRepository cardRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final Cache<Key, CardResolution> cache;
+
+    public CardResolutionCache(CardRepository cardRepository,
+                               CacheInvalidationBus cacheInvalidationBus,
+                               MeterRegistry meterRegistry,
+                               @Value("${card.resolution-cache.maximum-size}") long maximumSize,
+                               @Value("${card.resolution-cache.ttl}") Duration ttl) {
+        this.cardRepository = cardRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        cacheInvalidationBus.subscribe(CACHE_NAME, new CacheInvalidationBus.Listener() {
+            @Override
+            public void invalidate(UUID cardId) {
+                cache.asMap().values().removeIf(resolution -> resolution.id().equals(cardId));
+            }
+
+            @Override
+            public void invalidateAll() {
+                cache.invalidateAll();
+            }
+        });
+    }
+
+    /**
+     * Loads a missing entry outside the cache: a loader passed to {@link Cache#get} runs under a
+     * {@code ConcurrentHashMap} monitor and would pin a virtual thread for the whole query.
+     */
+    public Optional<CardResolution> get(String username, String numberHash) {
+        Key key = new Key(username, numberHash);
+        CardResolution resolution = cache.getIfPresent(key);
+        if (resolution != null) {
+            return Optional.of(resolution);
+        }
+        Optional<CardResolution> loaded = cardRepository.findCardResolutionByUserUsernameAndNumberHash(username,
+                numberHash);
+        loaded.ifPresent(value -> cache.put(key, value));
+        return loaded;
+    }
+
+    public void evict(UUID cardId) {
+        cacheInvalidationBus.invalidate(CACHE_NAME, cardId);
+    }
+
+    /**
+     * Drops the entry on this node right away, for an entry the caller found to be stale.
+     */
+    public void discard(String username, String numberHash) {
+        cache.invalidate(new Key(username, numberHash));
+    }
+
+    private record Key(String username, String numberHash) {
+    }
+}
@@ -1,17 +1,23 @@
 package com.example.bankcards.util;
 
 import com.example.bankcards.exception.CardBalanceException;
+import com.example.bankcards.exception.CardException;
 import com.example.bankcards.exception.CardLimitException;
 import com.example.bankcards.exception.CardStatusException;
 import com.example.bankcards.exception.CardsAreTheSameException;
+import com.example.bankcards.exception.LimitNotFoundException;
 import com.example.bankcards.util.factory.TransactionFactory;
 import com.example.bankcards.model.Card;
+import com.example.bankcards.model.CardUsage;
 import com.example.bankcards.model.Transaction;
 import com.example.bankcards.model.enums.CardStatus;
 import com.example.bankcards.model.enums.OperationResult;
 import com.example.bankcards.model.enums.OperationType;
-import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardUsageRepository;
 import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.repository.projection.CardLimits;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -26,42 +32,66 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class CardValidationUtils {
 
-    private final CardRepository cardRepository;
     private final TransactionRepository transactionRepository;
+    private final CardUsageRepository cardUsageRepository;
+    private final CardLimitCache cardLimitCache;
+    private final MeterRegistry meterRegistry;
 
     public void validateStatus(Card card, BigDecimal amount, OperationType operationType) {
+        timed("status", () -> checkStatus(card, amount, operationType));
+    }
+
+    public void validateNumbers(Card card, UUID targetCardId, BigDecimal amount, OperationType operationType) {
+        timed("numbers", () -> checkNumbers(card, targetCardId, amount, operationType));
+    }
+
+    public void validateBalance(Card card, BigDecimal amount, OperationType operationType) {
+        timed("balance", () -> checkBalance(card, null, amount, operationType));
+    }
+
+    public void validateBalanceForTransfer(Card card, Card targetCard, BigDecimal amount, OperationType operationType) {
+        timed("balance", () -> checkBalance(card, targetCard, amount, operationType));
+    }
+
+    public void validateLimit(Card card, BigDecimal amount, OperationType operationType) {
+        timed("limit", () -> checkLimit(card, amount, operationType));
+    }
+
+    private void timed(String check, Runnable validation) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "passed";
+        try {
+            validation.run();
+        } catch (CardException e) {
+            result = "rejected";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("card.validation", "check", check, "result", result));
+        }
+    }
+
+    private void checkStatus(Card card, BigDecimal amount, OperationType operationType) {
         if (card.getStatus().equals(CardStatus.BLOCKED)) {
             log.error("Operation forbidden, card with id {} was blocked", card.getId());
 
             Transaction transaction = TransactionFactory.create(card, amount, operationType, OperationResult.CARD_BLOCKED);
             transactionRepository.save(transaction);
 
-            throw new CardStatusException(String.format("Operation forbidden, card with id %s was blocked", card.getId()));
+            throw new CardStatusException(String.format("Operation forbidden, card with id %s was blocked", card.getId()),
+                    OperationResult.CARD_BLOCKED);
         }
 
-        if (card.getStatus().equals(CardStatus.EXPIRED)) {
+        if (card.getStatus().equals(CardStatus.EXPIRED) || !card.getExpirationDate().isAfter(LocalDate.now())) {
             log.error("Operation forbidden, card with id {} was expired at {}",
                     card.getId(), card.getExpirationDate());
             Transaction transaction = TransactionFactory.create(card, amount, operationType, OperationResult.CARD_EXPIRED);
             transactionRepository.save(transaction);
             throw new CardStatusException(String.format("Operation forbidden, card with id %s was expired at %s",
-                    card.getId(), card.getExpirationDate()));
-        }
-
-        if (!card.getExpirationDate().isAfter(LocalDate.now())) {
-            log.error("Operation forbidden, card with id {} was expired at {}", card.getId(), card.getExpirationDate());
-            card.setStatus(CardStatus.EXPIRED);
-            cardRepository.save(card);
-
-            Transaction transaction = TransactionFactory.create(card, amount, operationType, OperationResult.CARD_EXPIRED);
-            transactionRepository.save(transaction);
-
-            throw new CardStatusException(String.format("Operation forbidden, card with id %s was expired at %s",
-                    card.getId(), card.getExpirationDate()));
+                    card.getId(), card.getExpirationDate()), OperationResult.CARD_EXPIRED);
         }
     }
 
-    public void validateNumbers(Card card, UUID targetCardId, BigDecimal amount, OperationType operationType) {
+    private void checkNumbers(Card card, UUID targetCardId, BigDecimal amount, OperationType operationType) {
         if(card.getId() == targetCardId) {
             Transaction failedTransaction = TransactionFactory
                     .create(card, amount, operationType, OperationResult.FAILED);
@@ -71,51 +101,53 @@ public class CardValidationUtils {
         }
     }
 
-    public void validateBalance(Card card, BigDecimal amount, OperationType operationType) {
+    private void checkBalance(Card card, Card targetCard, BigDecimal amount, OperationType operationType) {
         if (card.getBalance().compareTo(amount) < 0) {
-            Transaction failedTransaction = TransactionFactory
-                    .create(card, amount, operationType, OperationResult.FAILED);
+            Transaction failedTransaction = targetCard == null
+                    ? TransactionFactory.create(card, amount, operationType, OperationResult.FAILED)
+                    : TransactionFactory.create(card, targetCard, amount, operationType, OperationResult.FAILED);
             transactionRepository.save(failedTransaction);
             log.error("Amount {} more than balance {}", amount, card.getBalance());
             throw new CardBalanceException(String.format("Amount %s more than balance %s", amount, card.getBalance()));
         }
     }
 
-    public void validateBalanceForTransfer(Card card, Card targetCard, BigDecimal amount, OperationType operationType) {
-        if (card.getBalance().compareTo(amount) < 0) {
-            Transaction failedTransaction = TransactionFactory
-                    .create(card, targetCard, amount, operationType, OperationResult.FAILED);
-            transactionRepository.save(failedTransaction);
-            log.error("Amount {} more than balance {}", amount, card.getBalance());
-            throw new CardBalanceException(String.format("Amount %s more than balance %s", amount, card.getBalance()));
-        }
-    }
+    private void checkLimit(Card card, BigDecimal amount, OperationType operationType) {
+        CardLimits limits = cardLimitCache.get(card.getId()).orElseThrow(() -> {
+            log.error("Limit wasn't found by card id {}", card.getId());
+            return new LimitNotFoundException(String.format("Limit wasn't found by card id %s", card.getId()));
+        });
+        Optional<CardUsage> cardUsage = cardUsageRepository.findById(card.getId());
+        LocalDate today = LocalDate.now();
 
-    public void validateLimit(Card card, BigDecimal amount, OperationType operationType) {
-        Optional<BigDecimal> dayAmount = cardRepository.findTodayWithdrawalsByCardId(card.getId());
+        BigDecimal dayAmount = cardUsage
+                .filter(usage -> today.equals(usage.getDailyPeriod()))
+                .map(CardUsage::getDailyWithdrawn)
+                .orElse(BigDecimal.ZERO);
 
-        if (dayAmount.isPresent() &&
-                dayAmount.get().add(amount).compareTo(card.getLimit().getDailyLimit()) > 0) {
+        if (dayAmount.add(amount).compareTo(limits.dailyLimit()) > 0) {
             Transaction failedTransaction = TransactionFactory
                     .create(card, amount, operationType, OperationResult.FAILED);
             transactionRepository.save(failedTransaction);
             log.error("Amount {} and day's withdrawal {} more than limit this day {}",
-                    amount, dayAmount.get(), card.getLimit().getDailyLimit());
+                    amount, dayAmount, limits.dailyLimit());
             throw new CardLimitException(String.format("Amount %s and day's withdrawal %s more than limit this day %s",
-                    amount, dayAmount.get(), card.getLimit().getDailyLimit()));
+                    amount, dayAmount, limits.dailyLimit()));
         }
 
-        Optional<BigDecimal> monthAmount = cardRepository.findTotalWithdrawalsForCurrentMonthByCardId(card.getId());
+        BigDecimal monthAmount = cardUsage
+                .filter(usage -> today.withDayOfMonth(1).equals(usage.getMonthlyPeriod()))
+                .map(CardUsage::getMonthlyWithdrawn)
+                .orElse(BigDecimal.ZERO);
 
-        if (monthAmount.isPresent() &&
-                monthAmount.get().add(amount).compareTo(card.getLimit().getMonthlyLimit()) > 0) {
+        if (monthAmount.add(amount).compareTo(limits.monthlyLimit()) > 0) {
             Transaction failedTransaction = TransactionFactory
                     .create(card, amount, operationType, OperationResult.FAILED);
             transactionRepository.save(failedTransaction);
             log.error("Amount {} and month withdrawal {} more than limit this month {}",
-                    amount, monthAmount.get(), card.getLimit().getMonthlyLimit());
+                    amount, monthAmount, limits.monthlyLimit());
             throw new CardLimitException(String.format("Amount %s and month withdrawal %s more than limit this month %s",
-                    amount, monthAmount.get(), card.getLimit().getMonthlyLimit()));
+                    amount, monthAmount, limits.monthlyLimit()));
         }
 
     }
@@ -10,4 +10,5 @@ public class Constants {
     public static final String USER_COLUMN = "user";
     public static final String USERNAME_COLUMN = "username";
     public static final String TIMESTAMP_COLUMN = "timestamp";
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
 }
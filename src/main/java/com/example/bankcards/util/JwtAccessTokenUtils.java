@@ -1,34 +1,63 @@
 package com.example.bankcards.util;
 
 import com.example.bankcards.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import lombok.Getter;
-import lombok.Setter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@Setter
-@Getter
 public class JwtAccessTokenUtils {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final String ROLES = "roles";
+    private static final String TOKEN_DIGEST_ALGORITHM = "SHA-256";
 
-    @Value("${jwt.lifetime}")
-    private Duration jwtLifetime;
+    private final Duration jwtLifetime;
+    private final Key signingKey;
+    private final JwtParser parser;
 
-    private static final String ROLES = "roles";
+    // Verified claims keyed by token digest, each entry lives until its token expires
+    private final Cache<String, Claims> claimsCache;
+    private final ThreadLocal<MessageDigest> tokenDigest = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(TOKEN_DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public JwtAccessTokenUtils(@Value("${jwt.secret}") String secret,
+                               @Value("${jwt.lifetime}") Duration jwtLifetime,
+                               @Value("${jwt.cache.maximum-size}") long cacheMaximumSize) {
+        this.jwtLifetime = jwtLifetime;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new ClaimsExpiry())
+                .build();
+    }
 
     public String generateAccessToken(User user) {
         Map<String, Object> claims = new HashMap<>();
@@ -44,7 +73,7 @@ public class JwtAccessTokenUtils {
                 .setSubject(user.getUsername())
                 .setIssuedAt(issuedDate)
                 .setExpiration(new Date(issuedDate.getTime() + jwtLifetime.toMillis()))
-                .signWith(Keys.hmacShaKeyFor(secret.getBytes()), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -53,15 +82,41 @@ public class JwtAccessTokenUtils {
     }
 
     public Claims getAllClaimsFromToken(String token) {
-
-        return Jwts.parserBuilder()
-                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes()))
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return claimsCache.get(digest(token), key -> parser.parseClaimsJws(token).getBody());
     }
 
     public List<String> getRoles(String token) {
-        return getAllClaimsFromToken(token).get(ROLES, List.class);
+        return getRoles(getAllClaimsFromToken(token));
+    }
+
+    public List<String> getRoles(Claims claims) {
+        return claims.get(ROLES, List.class);
+    }
+
+    private String digest(String token) {
+        byte[] hash = tokenDigest.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    private static class ClaimsExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            if (claims.getExpiration() == null) {
+                return 0;
+            }
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
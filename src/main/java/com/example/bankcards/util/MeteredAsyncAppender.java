@@ -0,0 +1,36 @@
+package com.example.bankcards.util;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback async appender that counts the events it throws away. Events up to INFO are discarded once the queue
+ * has less than discardingThreshold free slots; with neverBlock any event is dropped when the queue is full.
+ * Counts are taken just before the queue is touched, so under contention they are approximate.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remainingCapacity = getRemainingCapacity();
+        if (remainingCapacity < getDiscardingThreshold() && isDiscardable(event)) {
+            discarded.increment();
+        } else if (remainingCapacity == 0 && isNeverBlock()) {
+            dropped.increment();
+        }
+        super.append(event);
+    }
+
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
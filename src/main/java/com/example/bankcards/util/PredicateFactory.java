@@ -7,10 +7,12 @@ import com.example.bankcards.model.Transaction;
 import com.example.bankcards.model.enums.OperationResult;
 import com.example.bankcards.model.enums.OperationType;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import lombok.experimental.UtilityClass;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -22,6 +24,7 @@ public class PredicateFactory {
     private static final String FIELD_OPERATION_RESULT = "operationResult";
     private static final String FIELD_BALANCE = "balance";
     private static final String FIELD_EXPIRATION_DATE = "expirationDate";
+    private static final String FIELD_ID = "id";
 
     public List<Predicate> formPredicates(CriteriaBuilder cb,
                                           Root<Transaction> root,
@@ -46,6 +49,17 @@ public class PredicateFactory {
         return predicates;
     }
 
+    public Predicate formKeysetPredicate(CriteriaBuilder cb, Root<Transaction> root, TransactionCursor cursor) {
+        Path<LocalDateTime> timestamp = root.get(Constants.TIMESTAMP_COLUMN);
+        return cb.and(
+                cb.lessThanOrEqualTo(timestamp, cursor.timestamp()),
+                cb.or(
+                        cb.lessThan(timestamp, cursor.timestamp()),
+                        cb.lessThan(root.get(FIELD_ID), cursor.id())
+                )
+        );
+    }
+
     public List<Predicate> formPredicates(CriteriaBuilder cb, Root<Card> root, FilterCardDto filterCardDto) {
 
         List<Predicate> predicates = new ArrayList<>();
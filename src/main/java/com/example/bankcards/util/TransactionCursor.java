@@ -0,0 +1,51 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.InvalidCursorException;
+import com.example.bankcards.model.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in the transaction history ordered by timestamp and id, both descending.
+ * Encoded for clients as an opaque base64url token.
+ */
+public record TransactionCursor(LocalDateTime timestamp, UUID id) {
+
+    // Sorts after every stored transaction, so the first page needs no separate query
+    public static final TransactionCursor FIRST = new TransactionCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            new UUID(-1L, -1L));
+
+    private static final String SEPARATOR = "|";
+
+    public static TransactionCursor of(Transaction transaction) {
+        return new TransactionCursor(transaction.getTimestamp(), transaction.getId());
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Cursor " + cursor + " is invalid");
+            }
+            return new TransactionCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    UUID.fromString(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Cursor " + cursor + " is invalid");
+        }
+    }
+
+    public String encode() {
+        String value = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.dto.TransactionDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+@Component
+@RequiredArgsConstructor
+public class TransactionExportWriter {
+
+    private static final String CSV_HEADER = "id,amount,operationType,operationResult,timestamp,cardId,targetCardId";
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern(Constants.TIMESTAMP_PATTERN);
+    private static final int FLUSH_EVERY = 500;
+
+    private final ObjectMapper objectMapper;
+
+    public void write(Stream<TransactionDto> transactions, ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        int rows = 0;
+        Iterator<TransactionDto> iterator = transactions.iterator();
+        while (iterator.hasNext()) {
+            TransactionDto transaction = iterator.next();
+            writer.write(format == ExportFormat.CSV ? toCsv(transaction) : objectMapper.writeValueAsString(transaction));
+            writer.write('\n');
+            if (++rows % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private String toCsv(TransactionDto transaction) {
+        return String.join(",",
+                transaction.getId().toString(),
+                transaction.getAmount().toPlainString(),
+                transaction.getOperationType(),
+                transaction.getOperationResult(),
+                TIMESTAMP_FORMATTER.format(transaction.getTimestamp()),
+                transaction.getCardId().toString(),
+                Objects.toString(transaction.getTargetCardId(), ""));
+    }
+}
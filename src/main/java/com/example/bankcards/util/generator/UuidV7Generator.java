@@ -0,0 +1,40 @@
+package com.example.bankcards.util.generator;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered UUIDv7 ids (RFC 9562), so new rows land at the right edge of the primary key
+ * index instead of at random pages. The 12 bits after the millisecond timestamp hold a counter, which
+ * keeps ids generated in the same millisecond increasing; on overflow the counter carries into the timestamp.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final AtomicLong LAST_TIMESTAMP_AND_COUNTER = new AtomicLong();
+
+    public static UUID next() {
+        long timestampAndCounter = LAST_TIMESTAMP_AND_COUNTER.updateAndGet(
+                last -> Math.max(System.currentTimeMillis() << 12, last + 1));
+
+        long mostSigBits = (timestampAndCounter >>> 12) << 16 | 0x7000L | (timestampAndCounter & 0xFFFL);
+        long leastSigBits = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -4,6 +4,8 @@ import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.model.Card;
 import com.example.bankcards.model.User;
 import com.example.bankcards.model.enums.CardStatus;
+import com.example.bankcards.repository.projection.CardSummary;
+import com.example.bankcards.util.CardNumberMasker;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
@@ -16,14 +18,11 @@ public interface CardMapper {
     @Mapping(source = "user", target = "userId")
     CardDto toDto(Card card);
 
+    @Mapping(source = "maskedNumber", target = "number")
+    CardDto toDto(CardSummary cardSummary);
+
     default String mapNumberFromCardToCardDto(String decrypted) {
-        StringBuilder str = new StringBuilder(decrypted);
-        for (int i = 0; i < decrypted.length() - 4; i++) {
-            if (decrypted.charAt(i) != ' ') {
-                str.replace(i, i + 1, "*");
-            }
-        }
-        return str.toString();
+        return CardNumberMasker.mask(decrypted);
     }
 
     default UUID mapFromUserToUserId(User user) {
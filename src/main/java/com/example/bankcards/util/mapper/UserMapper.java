@@ -23,6 +23,9 @@ public interface UserMapper {
     @Mapping(source = "cards", target = "cards")
     UserDto toDto(User user);
 
+    @Mapping(source = "cards", target = "cards")
+    UserDto toDto(User user, List<CardDto> cards);
+
     default List<CardDto> mapFromCardListToCardDtoList(List<Card> cards) {
         if (cards == null) {
             return null;
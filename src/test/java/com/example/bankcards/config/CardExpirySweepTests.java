@@ -0,0 +1,96 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.TestcontainersConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "card.expiry-sweep.batch-size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TestcontainersConfiguration.class, SimpleMeterRegistry.class, CardExpirySweep.class})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CardExpirySweepTests {
+
+    @Autowired
+    private CardExpirySweep cardExpirySweep;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                INSERT INTO users (id, first_name, last_name, username, password, is_ban)
+                VALUES (md5('expiry_test')::uuid, 'First', 'Last', 'expiry_test', 'password', false)""");
+        jdbcTemplate.update("""
+                INSERT INTO card (id, number, number_hash, masked_number, balance, status, expiration_date, user_id)
+                SELECT md5('expiry_card' || g)::uuid, 'number-' || g, 'expiry-test-' || g, '**** **** **** 0000', 0,
+                       CAST(CASE WHEN g = 5 THEN 'BLOCKED' ELSE 'ACTIVE' END AS card_status), CURRENT_DATE + 2 - g,
+                       md5('expiry_test')::uuid
+                FROM generate_series(0, 6) g""");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM card WHERE number_hash LIKE 'expiry-test-%'");
+        jdbcTemplate.update("DELETE FROM users WHERE username = 'expiry_test'");
+    }
+
+    @Test
+    void expireCards_ShouldExpireOnlyActiveCardsPastExpirationDateInBatches() {
+        cardExpirySweep.expireCards();
+
+        assertEquals("ACTIVE", status(0));
+        assertEquals("ACTIVE", status(1));
+        assertEquals("EXPIRED", status(2));
+        assertEquals("EXPIRED", status(3));
+        assertEquals("EXPIRED", status(4));
+        assertEquals("BLOCKED", status(5));
+        assertEquals("EXPIRED", status(6));
+    }
+
+    @Test
+    void expireCards_ShouldSkipCardsLockedByRunningOperations() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id FROM card WHERE number_hash = 'expiry-test-3' FOR UPDATE")) {
+                statement.executeQuery();
+            }
+
+            cardExpirySweep.expireCards();
+            connection.rollback();
+        }
+
+        assertEquals("ACTIVE", status(3));
+        assertEquals("EXPIRED", status(2));
+
+        cardExpirySweep.expireCards();
+        assertEquals("EXPIRED", status(3));
+    }
+
+    private String status(int card) {
+        return jdbcTemplate.queryForObject("SELECT status FROM card WHERE number_hash = ?", String.class,
+                "expiry-test-" + card);
+    }
+}
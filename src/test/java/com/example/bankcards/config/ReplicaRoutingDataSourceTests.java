@@ -0,0 +1,154 @@
+package com.example.bankcards.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+class ReplicaRoutingDataSourceTests {
+
+    private DataSource primaryDataSource;
+    private DataSource replicaDataSource;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaStalenessGuard guard;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primaryDataSource = mock(DataSource.class);
+        replicaDataSource = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primaryDataSource.getConnection()).thenReturn(primaryConnection);
+        when(replicaDataSource.getConnection()).thenReturn(replicaConnection);
+
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new ReplicaStalenessGuard(replicaDataSource, Duration.ofSeconds(5), Duration.ofSeconds(5));
+        routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, guard, meterRegistry);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("vlad123", null, List.of()));
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testReadsGoToReplica() throws SQLException {
+        assertSame(replicaConnection, routingDataSource.getConnection());
+        assertEquals(1, routedCount("replica", "none"));
+    }
+
+    @Test
+    void testReadWriteTransactionGoesToPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertTrue(guard.hasRecentWrite());
+        verify(replicaDataSource, never()).getConnection();
+    }
+
+    @Test
+    void testReadsGoToPrimaryAfterOwnWrite() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        routingDataSource.getConnection();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertEquals(1, routedCount("primary", "read-your-writes"));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("other", null, List.of()));
+        assertSame(replicaConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void testWorkOutsideTransactionGoesToPrimaryWithoutRecordingWrite() throws SQLException {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertFalse(guard.hasRecentWrite());
+    }
+
+    @Test
+    void testReadsFallBackToPrimaryWhenReplicaRefusesConnection() throws SQLException {
+        when(replicaDataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertEquals(1, routedCount("primary", "replica-unavailable"));
+    }
+
+    @Test
+    void testReadsGoToPrimaryWhileReplicaLags() throws SQLException {
+        replicaReportsLag(30.0);
+
+        guard.checkReplicationLag();
+
+        assertFalse(guard.isReplicaUsable());
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertEquals(1, routedCount("primary", "replica-lagging"));
+
+        replicaReportsLag(0.5);
+        guard.checkReplicationLag();
+
+        assertTrue(guard.isReplicaUsable());
+    }
+
+    @Test
+    void testReplicaIsUnusableWhenLagCheckFails() throws SQLException {
+        when(replicaDataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        guard.checkReplicationLag();
+
+        assertFalse(guard.isReplicaUsable());
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        verify(replicaDataSource, times(1)).getConnection();
+    }
+
+    private void replicaReportsLag(double lagSeconds) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(replicaDataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(1);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getDouble(1)).thenReturn(lagSeconds);
+    }
+
+    private double routedCount(String target, String reason) {
+        return meterRegistry.get("datasource.read.routing")
+                .tag("target", target)
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.TestcontainersConfiguration;
+import com.example.bankcards.dto.UserDto;
+import com.example.bankcards.model.User;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.Driver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistrar;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"logging.file.name=", "datasource.replica.enabled=true"})
+@Import({TestcontainersConfiguration.class, ReplicaRoutingIntegrationTests.ReplicaConfiguration.class})
+@Testcontainers(disabledWithoutDocker = true)
+class ReplicaRoutingIntegrationTests {
+
+    private static final String CURRENT_DATABASE_QUERY = "SELECT current_database()";
+
+    /**
+     * Stands in for the streaming replica: a second server with the same schema that never receives the
+     * primary's writes, so every read shows which pool served it.
+     */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class ReplicaConfiguration {
+
+        @Bean
+        PostgreSQLContainer<?> replicaContainer() throws LiquibaseException {
+            PostgreSQLContainer<?> container = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                    .withDatabaseName("replica");
+            container.start();
+
+            SpringLiquibase liquibase = new SpringLiquibase();
+            liquibase.setDataSource(new SimpleDriverDataSource(new Driver(),
+                    container.getJdbcUrl(), container.getUsername(), container.getPassword()));
+            liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+            liquibase.setResourceLoader(new DefaultResourceLoader());
+            liquibase.afterPropertiesSet();
+            return container;
+        }
+
+        @Bean
+        DynamicPropertyRegistrar replicaProperties(PostgreSQLContainer<?> replicaContainer) {
+            return registry -> {
+                registry.add("datasource.replica.url", replicaContainer::getJdbcUrl);
+                registry.add("datasource.replica.username", replicaContainer::getUsername);
+                registry.add("datasource.replica.password", replicaContainer::getPassword);
+            };
+        }
+    }
+
+    @Autowired
+    private PostgreSQLContainer<?> postgresContainer;
+
+    @Autowired
+    private PostgreSQLContainer<?> replicaContainer;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    private User user;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (user != null) {
+            userRepository.deleteById(user.getId());
+        }
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldRunOnReplica() {
+        double before = routedReads("replica", "none");
+
+        assertEquals(replicaContainer.getDatabaseName(), currentDatabase(true));
+        assertEquals(before + 1, routedReads("replica", "none"));
+    }
+
+    @Test
+    void readWriteTransaction_ShouldRunOnPrimary() {
+        assertEquals(postgresContainer.getDatabaseName(), currentDatabase(false));
+    }
+
+    @Test
+    void readOnlyService_ShouldNotSeeRowsWrittenToPrimary() {
+        user = userRepository.save(User.builder()
+                .firstName("Replica")
+                .lastName("Test")
+                .username("replica_test_" + UUID.randomUUID())
+                .password("password")
+                .build());
+
+        Boolean onPrimary = new TransactionTemplate(transactionManager)
+                .execute(status -> userRepository.existsByUsername(user.getUsername()));
+        assertEquals(Boolean.TRUE, onPrimary);
+
+        List<UserDto> users = userService.findAll(PageRequest.of(0, 100)).getContent();
+        assertTrue(users.stream().noneMatch(dto -> dto.getUsername().equals(user.getUsername())));
+    }
+
+    @Test
+    void transactionsOfOneSession_ShouldEachPickTheirPool() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("replica_test_" + UUID.randomUUID(), null, List.of()));
+        double readYourWritesBefore = routedReads("primary", "read-your-writes");
+
+        // Binds one session across several transactions the way open-session-in-view does for a request
+        EntityManager session = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(session));
+        try {
+            assertEquals(replicaContainer.getDatabaseName(), currentDatabase(true));
+            assertEquals(postgresContainer.getDatabaseName(), currentDatabase(false));
+            assertEquals(postgresContainer.getDatabaseName(), currentDatabase(true));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            session.close();
+        }
+        assertEquals(readYourWritesBefore + 1, routedReads("primary", "read-your-writes"));
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                (String) entityManager.createNativeQuery(CURRENT_DATABASE_QUERY).getSingleResult());
+    }
+
+    private double routedReads(String target, String reason) {
+        return meterRegistry.get("datasource.read.routing")
+                .tag("target", target)
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.TestcontainersConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "transaction.partition.months-ahead=3",
+        "transaction.partition.retention-months=24",
+        "transaction.partition.detach.max-attempts=5",
+        "transaction.partition.detach.retry-backoff=100ms"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TestcontainersConfiguration.class, SimpleMeterRegistry.class, TransactionPartitionMaintenance.class})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionPartitionMaintenanceTests {
+
+    private static final LocalDate EXPIRED_MONTH = LocalDate.now().minusMonths(30);
+    private static final LocalDate UNPARTITIONED_MONTH = LocalDate.now().plusYears(10);
+
+    @Autowired
+    private TransactionPartitionMaintenance transactionPartitionMaintenance;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS archived_" + partition(EXPIRED_MONTH));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition(EXPIRED_MONTH));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition(UNPARTITIONED_MONTH));
+        jdbcTemplate.update("DELETE FROM transaction_default WHERE card_id = md5('partition_card')::uuid");
+        jdbcTemplate.update("DELETE FROM card WHERE number_hash = 'partition-test'");
+        jdbcTemplate.update("DELETE FROM users WHERE username = 'partition_test'");
+    }
+
+    @Test
+    void createPartitions_ShouldCreateCurrentAndFutureMonths() {
+        LocalDate today = LocalDate.now().plusYears(5);
+
+        transactionPartitionMaintenance.createPartitions(today);
+        transactionPartitionMaintenance.createPartitions(today);
+
+        List<String> partitions = partitions();
+        for (int month = 0; month <= 3; month++) {
+            assertTrue(partitions.contains(partition(today.plusMonths(month))), partitions::toString);
+        }
+        assertFalse(partitions.contains(partition(today.plusMonths(4))), partitions::toString);
+
+        for (int month = 0; month <= 3; month++) {
+            jdbcTemplate.execute("DROP TABLE " + partition(today.plusMonths(month)));
+        }
+    }
+
+    @Test
+    void drainDefaultPartition_ShouldMoveRowsIntoPartitionOfTheirMonth() {
+        insertCard();
+        insertTransaction(UNPARTITIONED_MONTH);
+        assertEquals(1, countTransactions("transaction_default"));
+
+        transactionPartitionMaintenance.drainDefaultPartition();
+
+        assertTrue(partitions().contains(partition(UNPARTITIONED_MONTH)), partitions()::toString);
+        assertEquals(0, countTransactions("transaction_default"));
+        assertEquals(1, countTransactions(partition(UNPARTITIONED_MONTH)));
+
+        insertTransaction(UNPARTITIONED_MONTH.plusDays(1));
+        assertEquals(2, countTransactions(partition(UNPARTITIONED_MONTH)));
+    }
+
+    @Test
+    void detachExpiredPartitions_ShouldArchiveOnlyPartitionsOutsideRetention() {
+        jdbcTemplate.queryForObject("SELECT create_transaction_partition(?)", String.class, EXPIRED_MONTH);
+        insertCard();
+        insertTransaction(EXPIRED_MONTH);
+
+        transactionPartitionMaintenance.detachExpiredPartitions(YearMonth.now());
+
+        List<String> partitions = partitions();
+        assertFalse(partitions.contains(partition(EXPIRED_MONTH)), partitions::toString);
+        assertTrue(partitions.contains(partition(LocalDate.now())), partitions::toString);
+        assertEquals(0, countTransactions("transaction"));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM archived_" + partition(EXPIRED_MONTH), Integer.class));
+    }
+
+    @Test
+    void detachExpiredPartitions_ShouldRetryUntilTransactionTableIsFree() throws Exception {
+        jdbcTemplate.queryForObject("SELECT create_transaction_partition(?)", String.class, EXPIRED_MONTH);
+
+        CompletableFuture<Void> released;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LOCK TABLE transaction IN ACCESS SHARE MODE");
+            }
+            released = CompletableFuture.runAsync(() -> {
+                try {
+                    Thread.sleep(300);
+                    connection.rollback();
+                } catch (InterruptedException | SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            transactionPartitionMaintenance.detachExpiredPartitions(YearMonth.now());
+            released.join();
+        }
+
+        assertFalse(partitions().contains(partition(EXPIRED_MONTH)), partitions()::toString);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM archived_" + partition(EXPIRED_MONTH), Integer.class));
+    }
+
+    private void insertCard() {
+        jdbcTemplate.update("""
+                INSERT INTO users (id, first_name, last_name, username, password, is_ban)
+                VALUES (md5('partition_test')::uuid, 'First', 'Last', 'partition_test', 'password', false)""");
+        jdbcTemplate.update("""
+                INSERT INTO card (id, number, number_hash, masked_number, balance, status, expiration_date, user_id)
+                VALUES (md5('partition_card')::uuid, 'number', 'partition-test', '**** **** **** 0000', 0, 'ACTIVE', CURRENT_DATE,
+                        md5('partition_test')::uuid)""");
+    }
+
+    private void insertTransaction(LocalDate day) {
+        jdbcTemplate.update("""
+                INSERT INTO transaction (amount, operation, operation_result, card_id, timestamp)
+                VALUES (10, 'RECHARGE', 'SUCCESSFULLY', md5('partition_card')::uuid, ?)""", day.atStartOfDay());
+    }
+
+    private int countTransactions(String table) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM " + table + " WHERE card_id = md5('partition_card')::uuid", Integer.class);
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'transaction'::regclass""", String.class);
+    }
+
+    private String partition(LocalDate month) {
+        return String.format("transaction_%d_%02d", month.getYear(), month.getMonthValue());
+    }
+}
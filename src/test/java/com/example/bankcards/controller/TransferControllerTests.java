@@ -1,12 +1,16 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.request.BulkTransferRequestDto;
 import com.example.bankcards.dto.request.RechargeRequestDto;
 import com.example.bankcards.dto.request.TransferRequestDto;
 import com.example.bankcards.dto.request.WithdrawalRequestDto;
+import com.example.bankcards.dto.response.BulkTransferItemDto;
+import com.example.bankcards.dto.response.BulkTransferResponseDto;
 import com.example.bankcards.dto.response.RechargeResponseDto;
 import com.example.bankcards.dto.response.TransferResponseDto;
 import com.example.bankcards.dto.response.WithdrawalResponseDto;
 import com.example.bankcards.exception.*;
+import com.example.bankcards.model.enums.OperationResult;
 import com.example.bankcards.service.TransferService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeAll;
@@ -22,11 +26,16 @@ import org.springframework.http.converter.json.MappingJackson2HttpMessageConvert
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
 import java.security.Principal;
+import java.util.List;
 
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -107,7 +116,7 @@ public class TransferControllerTests {
 
         principal = () -> USER_EMAIL;
 
-        cardStatusException = new CardStatusException("wrong card status");
+        cardStatusException = new CardStatusException("wrong card status", OperationResult.CARD_BLOCKED);
         cardNotFoundException = new CardNotFoundException("card not found");
         cardLimitException = new CardLimitException("card limit exception");
         cardBalanceException = new CardBalanceException("card balance exception");
@@ -126,7 +135,7 @@ public class TransferControllerTests {
     @Test
     void testRechargeMoney() throws Exception {
 
-        when(transferService.recharge(USER_EMAIL, rechargeRequestDto))
+        when(transferService.recharge(USER_EMAIL, null, rechargeRequestDto))
                 .thenReturn(rechargeResponseDto);
 
         mockMvc.perform((MockMvcRequestBuilders.post("/api/v1/transfer/recharge")
@@ -165,7 +174,7 @@ public class TransferControllerTests {
     @Test
     void testRechargeMoneyWithWrongStatus() throws Exception {
 
-        when(transferService.recharge(USER_EMAIL, rechargeRequestDto)).thenThrow(cardStatusException);
+        when(transferService.recharge(USER_EMAIL, null, rechargeRequestDto)).thenThrow(cardStatusException);
 
         mockMvc.perform((MockMvcRequestBuilders.post("/api/v1/transfer/recharge")
                         .principal(principal)
@@ -185,7 +194,7 @@ public class TransferControllerTests {
     @Test
     void testWithdrawalMoney() throws Exception {
 
-        when(transferService.withdrawal(USER_EMAIL, withdrawalRequestDto)).thenReturn(withdrawalResponseDto);
+        when(transferService.withdrawal(USER_EMAIL, null, withdrawalRequestDto)).thenReturn(withdrawalResponseDto);
 
         mockMvc.perform((MockMvcRequestBuilders.post("/api/v1/transfer/withdrawal")
                         .principal(principal)
@@ -223,7 +232,7 @@ public class TransferControllerTests {
     @Test
     void testWithdrawalMoneyWhenCardNotFound() throws Exception {
 
-        when(transferService.withdrawal(USER_EMAIL, withdrawalRequestDto)).thenThrow(cardNotFoundException);
+        when(transferService.withdrawal(USER_EMAIL, null, withdrawalRequestDto)).thenThrow(cardNotFoundException);
 
         mockMvc.perform((MockMvcRequestBuilders.post("/api/v1/transfer/withdrawal")
                         .principal(principal)
@@ -243,7 +252,7 @@ public class TransferControllerTests {
     @Test
     void testWithdrawalMoneyWithSpentBalance() throws Exception {
 
-        when(transferService.withdrawal(USER_EMAIL, withdrawalRequestDto)).thenThrow(cardLimitException);
+        when(transferService.withdrawal(USER_EMAIL, null, withdrawalRequestDto)).thenThrow(cardLimitException);
 
         mockMvc.perform((MockMvcRequestBuilders.post("/api/v1/transfer/withdrawal")
                         .principal(principal)
@@ -263,7 +272,7 @@ public class TransferControllerTests {
     @Test
     void testWithdrawalMoneyWithWrongBalance() throws Exception {
 
-        when(transferService.withdrawal(USER_EMAIL, withdrawalRequestDto)).thenThrow(cardBalanceException);
+        when(transferService.withdrawal(USER_EMAIL, null, withdrawalRequestDto)).thenThrow(cardBalanceException);
 
         mockMvc.perform((MockMvcRequestBuilders.post("/api/v1/transfer/withdrawal")
                         .principal(principal)
@@ -299,4 +308,143 @@ public class TransferControllerTests {
                         jsonPath("$.errors.targetNumber").value(notNullValue())
                 );
     }
+
+    @Test
+    void testTransferMoneyWhenConnectionPoolIsExhausted() throws Exception {
+
+        when(transferService.transfer(USER_EMAIL, null, transferRequestDto))
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                        new SQLTransientConnectionException("HikariPool-1 - Connection is not available, request timed out after 30000ms")));
+
+        mockMvc.perform((MockMvcRequestBuilders.post("/api/v1/transfer")
+                        .principal(principal)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferRequestDto))))
+                .andDo(print())
+                .andExpect(status().isServiceUnavailable())
+                .andExpectAll(
+                        jsonPath("$.code").value(503),
+                        jsonPath("$.timestamp").value(notNullValue()),
+                        jsonPath("$.message").value("Service is busy, please try again later")
+                );
+    }
+
+    @Test
+    void testTransferMoneyWhenDatabaseRefusesConnection() throws Exception {
+
+        when(transferService.transfer(USER_EMAIL, null, transferRequestDto))
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                        new SQLException("FATAL: password authentication failed for user \"postgres\"")));
+
+        mockMvc.perform((MockMvcRequestBuilders.post("/api/v1/transfer")
+                        .principal(principal)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferRequestDto))))
+                .andDo(print())
+                .andExpect(status().isInternalServerError())
+                .andExpectAll(
+                        jsonPath("$.code").value(500),
+                        jsonPath("$.timestamp").value(notNullValue()),
+                        jsonPath("$.message").value("Internal server error")
+                );
+    }
+
+    @Test
+    void testTransferMoneyWithIdempotencyKey() throws Exception {
+
+        when(transferService.transfer(USER_EMAIL, "c7f1f6a2-transfer-1", transferRequestDto))
+                .thenReturn(transferResponseDto);
+
+        mockMvc.perform((MockMvcRequestBuilders.post("/api/v1/transfer")
+                        .principal(principal)
+                        .header("Idempotency-Key", "c7f1f6a2-transfer-1")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferRequestDto))))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        verify(transferService).transfer(USER_EMAIL, "c7f1f6a2-transfer-1", transferRequestDto);
+    }
+
+    @Test
+    void testTransferMoneyWhenIdempotencyKeyWasUsedForDifferentRequest() throws Exception {
+
+        when(transferService.transfer(USER_EMAIL, "c7f1f6a2-transfer-1", transferRequestDto))
+                .thenThrow(new IdempotencyKeyConflictException("Idempotency key c7f1f6a2-transfer-1 was already used for a different request"));
+
+        mockMvc.perform((MockMvcRequestBuilders.post("/api/v1/transfer")
+                        .principal(principal)
+                        .header("Idempotency-Key", "c7f1f6a2-transfer-1")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferRequestDto))))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andExpectAll(
+                        jsonPath("$.code").value(409),
+                        jsonPath("$.timestamp").value(notNullValue()),
+                        jsonPath("$.message").value("Idempotency key c7f1f6a2-transfer-1 was already used for a different request")
+                );
+    }
+
+    @Test
+    void testBulkTransfer() throws Exception {
+
+        BulkTransferRequestDto bulkTransferRequestDto = new BulkTransferRequestDto();
+        bulkTransferRequestDto.setTransfers(List.of(transferRequestDto, transferRequestDto));
+        BulkTransferResponseDto bulkTransferResponseDto = BulkTransferResponseDto.builder()
+                .succeeded(1)
+                .failed(1)
+                .results(List.of(
+                        BulkTransferItemDto.builder().index(0).code(200).transfer(transferResponseDto).build(),
+                        BulkTransferItemDto.builder().index(1).code(400).message("card balance exception").build()))
+                .build();
+
+        when(transferService.bulkTransfer(USER_EMAIL, "c7f1f6a2-bulk-1", bulkTransferRequestDto)).thenReturn(bulkTransferResponseDto);
+
+        mockMvc.perform((MockMvcRequestBuilders.post("/api/v1/transfer/bulk")
+                        .principal(principal)
+                        .header("Idempotency-Key", "c7f1f6a2-bulk-1")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bulkTransferRequestDto))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpectAll(
+                        jsonPath("$.succeeded").value(1),
+                        jsonPath("$.failed").value(1),
+                        jsonPath("$.results[0].code").value(200),
+                        jsonPath("$.results[0].transfer.number").value(transferRequestDto.getNumber()),
+                        jsonPath("$.results[1].code").value(400),
+                        jsonPath("$.results[1].message").value("card balance exception")
+                );
+    }
+
+    @Test
+    void testBulkTransferWithEmptyList() throws Exception {
+
+        BulkTransferRequestDto bulkTransferRequestDto = new BulkTransferRequestDto();
+        bulkTransferRequestDto.setTransfers(List.of());
+
+        mockMvc.perform((MockMvcRequestBuilders.post("/api/v1/transfer/bulk")
+                        .principal(principal)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bulkTransferRequestDto))))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpectAll(
+                        jsonPath("$.code").value(400),
+                        jsonPath("$.errors.transfers").value("Transfers must not be empty")
+                );
+    }
 }
@@ -0,0 +1,279 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.TestcontainersConfiguration;
+import com.example.bankcards.dto.TransactionFilterDto;
+import com.example.bankcards.service.TransactionService;
+import com.example.bankcards.service.impl.TransactionServiceImpl;
+import com.example.bankcards.util.CardNumberCryptoConverter;
+import com.example.bankcards.util.TransactionCursor;
+import com.example.bankcards.util.TransactionExportWriter;
+import com.example.bankcards.util.mapper.TransactionMapperImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.bankcards.repository.RepositoryIndexTests$CapturedStatements")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TestcontainersConfiguration.class, SimpleMeterRegistry.class})
+@Testcontainers(disabledWithoutDocker = true)
+class RepositoryIndexTests {
+
+    private static final int USERS = 2500;
+    private static final int CARDS = 5000;
+    private static final int TRANSACTIONS = 100000;
+    private static final int BLOCK_REQUESTS = 5000;
+
+    private static final String USERNAME = "seed_user_7";
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 20);
+    private static final TransactionFilterDto EMPTY_FILTER =
+            new TransactionFilterDto(null, null, null, null);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BlockRequestRepository blockRequestRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private LimitRepository limitRepository;
+
+    @Autowired
+    private CardUsageRepository cardUsageRepository;
+
+    private UUID userId;
+    private UUID cardId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.queryForList("""
+                SELECT create_transaction_partition((now() - g * interval '1 month')::date)
+                FROM generate_series(1, 3) g""");
+        jdbcTemplate.update("""
+                INSERT INTO users (id, first_name, last_name, username, password, is_ban)
+                SELECT md5('user' || g)::uuid, 'First', 'Last', 'seed_user_' || g, 'password', false
+                FROM generate_series(0, ?) g""", USERS - 1);
+        jdbcTemplate.update("""
+                INSERT INTO card (id, number, number_hash, masked_number, balance, status, expiration_date, user_id)
+                SELECT md5('card' || g)::uuid, 'seed-number-' || g, md5('number' || g), '**** **** **** 0000', 0, 'ACTIVE', CURRENT_DATE + 365,
+                       md5('user' || (g % ?))::uuid
+                FROM generate_series(0, ?) g""", USERS, CARDS - 1);
+        jdbcTemplate.update("""
+                INSERT INTO limits (card_id, daily_limit, monthly_limit)
+                SELECT md5('card' || g)::uuid, 300, 3400 FROM generate_series(0, ?) g""", CARDS - 1);
+        jdbcTemplate.update("""
+                INSERT INTO card_usage (card_id, daily_period, daily_withdrawn, monthly_period, monthly_withdrawn)
+                SELECT md5('card' || g)::uuid, CURRENT_DATE, 0, CAST(date_trunc('month', CURRENT_DATE) AS date), 0
+                FROM generate_series(0, ?) g""", CARDS - 1);
+        jdbcTemplate.update("""
+                INSERT INTO transaction (amount, operation, operation_result, card_id, timestamp)
+                SELECT 10, 'WITHDRAWAL', 'SUCCESSFULLY', md5('card' || (g % ?))::uuid, now() - g * interval '1 minute'
+                FROM generate_series(1, ?) g""", CARDS, TRANSACTIONS);
+        jdbcTemplate.update("""
+                INSERT INTO block_request (user_id, card_id, status, created_at, updated_at)
+                SELECT md5('user' || (g % ?))::uuid, md5('card' || (g % ?))::uuid, 'CREATED',
+                       now() - g * interval '1 hour', now()
+                FROM generate_series(1, ?) g""", USERS, CARDS, BLOCK_REQUESTS);
+        jdbcTemplate.execute("ANALYZE");
+
+        userId = jdbcTemplate.queryForObject("SELECT md5('user7')::uuid", UUID.class);
+        cardId = jdbcTemplate.queryForObject("SELECT md5('card7')::uuid", UUID.class);
+    }
+
+    @Test
+    void findByCardIdOrderByTimestampDesc_ShouldUseCardTimestampIndex() {
+        String plan = explainGenerated(() -> transactionRepository.findByCardIdOrderByTimestampDesc(cardId, FIRST_PAGE),
+                cardId, FIRST_PAGE.getPageSize());
+
+        assertUsesPartitionIndex(plan, "card_id_timestamp_id");
+    }
+
+    @Test
+    void findByCardUserIdOrderByTimestampDesc_ShouldUseCardAndTransactionIndexes() {
+        String plan = explainGenerated(() -> transactionRepository.findByCardUserIdOrderByTimestampDesc(userId, FIRST_PAGE),
+                userId, FIRST_PAGE.getPageSize());
+
+        assertUsesIndex(plan, "idx_card_user_id", "card");
+        assertUsesPartitionIndex(plan, "card_id_timestamp_id");
+    }
+
+    @Test
+    void findByCardUserUsernameOrderByTimestampDesc_ShouldUseIndexesOnEveryJoin() {
+        String plan = explainGenerated(() -> transactionRepository.findByCardUserUsernameOrderByTimestampDesc(USERNAME, FIRST_PAGE),
+                USERNAME, FIRST_PAGE.getPageSize());
+
+        assertUsesIndex(plan, "idx_card_user_id", "card");
+        assertUsesPartitionIndex(plan, "card_id_timestamp_id");
+    }
+
+    @Test
+    void findByCardIdBefore_ShouldSeekIntoCardTimestampIdIndex() {
+        LocalDateTime before = LocalDateTime.now().minusDays(50);
+        String plan = explainGenerated(() -> transactionRepository.findByCardIdBefore(cardId, before, cardId, Limit.of(21)),
+                cardId, before, before, cardId, 21);
+
+        assertUsesPartitionIndex(plan, "card_id_timestamp_id");
+        assertTrue(plan.contains("Index Cond: ((card_id = "), plan);
+        assertTrue(plan.contains("AND (\"timestamp\" <= "), plan);
+    }
+
+    @Test
+    void scrollAll_ShouldSeekIntoTimestampIdIndex() {
+        LocalDateTime before = LocalDateTime.now().minusDays(50);
+        TransactionService transactionService = new TransactionServiceImpl(transactionRepository,
+                new TransactionMapperImpl(), mock(TransactionExportWriter.class), entityManager);
+        String after = new TransactionCursor(before, cardId).encode();
+
+        String plan = explainGenerated(() -> transactionService.scrollAll(after, 20, EMPTY_FILTER),
+                before, before, cardId, 21);
+
+        assertUsesPartitionIndex(plan, "timestamp_id");
+    }
+
+    @Test
+    void findByCardIdBefore_ShouldPruneNewerPartitions() {
+        LocalDateTime before = LocalDateTime.now().minusMonths(1).withDayOfMonth(1).minusDays(1);
+        String plan = explainGenerated(() -> transactionRepository.findByCardIdBefore(cardId, before, cardId, Limit.of(21)),
+                cardId, before, before, cardId, 21);
+
+        assertTrue(plan.contains(partition(before)), plan);
+        assertFalse(plan.contains(partition(before.plusMonths(1))), plan);
+        assertFalse(plan.contains(partition(LocalDateTime.now())), plan);
+    }
+
+    @Test
+    void findFirstByCardIdOrderByCreatedAtDesc_ShouldUseCardCreatedAtIndex() {
+        String plan = explainGenerated(() -> blockRequestRepository.findFirstByCardIdOrderByCreatedAtDesc(cardId),
+                cardId, 1);
+
+        assertUsesIndex(plan, "idx_block_request_card_id_created_at", "block_request");
+    }
+
+    @Test
+    void findByUserId_ShouldUseBlockRequestUserIndex() {
+        String plan = explainGenerated(() -> blockRequestRepository.findByUserId(userId, FIRST_PAGE),
+                userId, FIRST_PAGE.getPageSize());
+
+        assertUsesIndex(plan, "idx_block_request_user_id", "block_request");
+    }
+
+    @Test
+    void findCardByUserUsernameAndNumberHash_ShouldUseNumberHashIndex() {
+        // the entity query decrypts the number, so the seeded placeholder needs a real ciphertext
+        CardNumberCryptoConverter converter = beanFactory.createBean(CardNumberCryptoConverter.class);
+        jdbcTemplate.update("UPDATE card SET number = ? WHERE id = ?",
+                converter.convertToDatabaseColumn("1111 2222 3333 4444"), cardId);
+        String numberHash = jdbcTemplate.queryForObject("SELECT md5('number7')", String.class);
+        String plan = explainGenerated(() -> cardRepository.findCardByUserUsernameAndNumberHash(USERNAME, numberHash),
+                USERNAME, numberHash);
+
+        assertUsesIndex(plan, "ux_card_number_hash", "card");
+    }
+
+    @Test
+    void findCardResolutionByUserUsernameAndNumberHash_ShouldUseNumberHashIndex() {
+        String numberHash = jdbcTemplate.queryForObject("SELECT md5('number7')", String.class);
+        String plan = explainGenerated(() -> cardRepository.findCardResolutionByUserUsernameAndNumberHash(USERNAME, numberHash),
+                USERNAME, numberHash);
+
+        assertUsesIndex(plan, "ux_card_number_hash", "card");
+    }
+
+    @Test
+    void findCardLimitsByCardId_ShouldUseUniqueCardIndex() {
+        String plan = explainGenerated(() -> limitRepository.findCardLimitsByCardId(cardId), cardId);
+
+        assertUsesIndex(plan, "ux_limits_card_id", "limits");
+    }
+
+    @Test
+    void findCardUsageById_ShouldUsePrimaryKey() {
+        String plan = explainGenerated(() -> cardUsageRepository.findById(cardId), cardId);
+
+        assertUsesIndex(plan, "card_usage_pkey", "card_usage");
+    }
+
+    @Test
+    void expireCards_ShouldFindCandidatesThroughPartialIndex() {
+        String plan = explainGenerated(() -> cardRepository.expireCards(1000), 1000);
+
+        assertUsesIndex(plan, "idx_card_active_expiration_date", "card");
+    }
+
+    /**
+     * Runs the repository call, then explains the first statement Hibernate sent for it,
+     * binding {@code args} in the order the statement declares its parameters.
+     */
+    private String explainGenerated(Runnable repositoryCall, Object... args) {
+        CapturedStatements.STATEMENTS.clear();
+        repositoryCall.run();
+        assertFalse(CapturedStatements.STATEMENTS.isEmpty(), "Repository call issued no statement");
+        return explain(CapturedStatements.STATEMENTS.get(0), args);
+    }
+
+    private String explain(String sql, Object... args) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+
+    private String partition(LocalDateTime timestamp) {
+        return String.format("transaction_%d_%02d", timestamp.getYear(), timestamp.getMonthValue());
+    }
+
+    private void assertUsesPartitionIndex(String plan, String columns) {
+        Pattern index = Pattern.compile("(using|on) transaction_\\d{4}_\\d{2}_" + columns + "_idx");
+        // empty partitions are planned as zero-cost seq scans and maintenance keeps the default one empty,
+        // only scans of populated monthly partitions matter
+        Pattern seqScan = Pattern.compile("Seq Scan on transaction(?!_default)\\S* \\S+\\s+\\(cost=(?!0\\.00\\.\\.0\\.00 )");
+        assertTrue(index.matcher(plan).find(), () -> String.format("Expected index on (%s) in plan:%n%s", columns, plan));
+        assertFalse(seqScan.matcher(plan).find(), () -> String.format("Unexpected seq scan on transaction:%n%s", plan));
+    }
+
+    private void assertUsesIndex(String plan, String index, String table) {
+        assertTrue(plan.contains(index), () -> String.format("Expected index %s in plan:%n%s", index, plan));
+        assertFalse(plan.contains("Seq Scan on " + table + " "), () -> String.format("Unexpected seq scan on %s:%n%s", table, plan));
+    }
+
+    public static class CapturedStatements implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.TestcontainersConfiguration;
+import com.example.bankcards.util.generator.UuidV7Generator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Inserts rows into a table that already holds {@code benchmark.rows} rows keyed by random UUIDv4 and by
+ * UUIDv7, and compares throughput and primary key index reads. Runs only with {@code -Dbenchmark=true}.
+ */
+@Slf4j
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TestcontainersConfiguration.class, SimpleMeterRegistry.class})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UuidInsertBenchmarkTests {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000_000);
+    private static final int INSERTS = Integer.getInteger("benchmark.inserts", 500_000);
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS uuid_bench_v4");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS uuid_bench_v7");
+    }
+
+    @Test
+    void compareInsertThroughput() {
+        seed("uuid_bench_v4", "gen_random_uuid()");
+        seed("uuid_bench_v7", "uuid_generate_v7()");
+
+        measure("uuid_bench_v4", UUID::randomUUID);
+        measure("uuid_bench_v7", UuidV7Generator::next);
+    }
+
+    private void seed(String table, String idFunction) {
+        jdbcTemplate.execute("CREATE TABLE " + table
+                + " (id uuid NOT NULL, card_id uuid NOT NULL, amount numeric(19, 2) NOT NULL, timestamp timestamp NOT NULL)");
+        jdbcTemplate.update("INSERT INTO " + table + " SELECT " + idFunction
+                + ", md5('card' || (g % 5000))::uuid, 10, now() - g * interval '1 second' FROM generate_series(1, ?) g", ROWS);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (id)");
+        jdbcTemplate.execute("VACUUM ANALYZE " + table);
+    }
+
+    private void measure(String table, Supplier<UUID> ids) {
+        jdbcTemplate.execute("CHECKPOINT");
+        long indexReadsBefore = indexBlocksRead(table);
+        UUID cardId = UUID.randomUUID();
+
+        long start = System.nanoTime();
+        for (int inserted = 0; inserted < INSERTS; inserted += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(new Object[]{ids.get(), cardId, BigDecimal.TEN, new Timestamp(System.currentTimeMillis())});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO " + table + " (id, card_id, amount, timestamp) VALUES (?, ?, ?, ?)", batch);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        jdbcTemplate.execute("SELECT pg_stat_force_next_flush()");
+        log.info("{}: {} inserts/s into {} rows, {} primary key blocks read from disk, index size {}",
+                table, Math.round(INSERTS / seconds), ROWS, indexBlocksRead(table) - indexReadsBefore,
+                jdbcTemplate.queryForObject("SELECT pg_size_pretty(pg_relation_size(?::regclass))", String.class, table + "_pkey"));
+        assertEquals((long) ROWS + INSERTS, jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class));
+    }
+
+    private long indexBlocksRead(String table) {
+        jdbcTemplate.execute("SELECT pg_stat_clear_snapshot()");
+        return jdbcTemplate.queryForObject(
+                "SELECT coalesce(idx_blks_read, 0) FROM pg_statio_user_indexes WHERE indexrelname = ?",
+                Long.class, table + "_pkey");
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bankcards.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.bankcards.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class BoundedPasswordEncoderTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    void testEncodeAndMatchesRunOnHashingPool() {
+        passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 4, 2, 4, Duration.ofSeconds(5), meterRegistry);
+
+        String encoded = passwordEncoder.encode("q1w2e3");
+
+        assertTrue(encoded.startsWith("$2a$04$"));
+        assertTrue(passwordEncoder.matches("q1w2e3", encoded));
+        assertFalse(passwordEncoder.matches("wrong", encoded));
+        assertEquals(1, meterRegistry.get("password.hashing").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void testUpgradeEncodingWhenStoredCostDiffers() {
+        passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 11, 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+        assertTrue(passwordEncoder.upgradeEncoding("$2a$10$gCNh285EMEBiIFOvzOlqqejkCSxr9kvEiBfZUMcqVZILzShvUIb/a"));
+        assertTrue(passwordEncoder.upgradeEncoding("$2a$12$gCNh285EMEBiIFOvzOlqqejkCSxr9kvEiBfZUMcqVZILzShvUIb/a"));
+        assertFalse(passwordEncoder.upgradeEncoding("$2a$11$gCNh285EMEBiIFOvzOlqqejkCSxr9kvEiBfZUMcqVZILzShvUIb/a"));
+        assertFalse(passwordEncoder.upgradeEncoding(null));
+    }
+
+    @Test
+    void testRejectWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "encoded";
+        });
+        passwordEncoder = new BoundedPasswordEncoder(delegate, 10, 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("second"));
+        while (meterRegistry.get("password.hashing.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> passwordEncoder.encode("third"));
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("encoded", running.get(5, TimeUnit.SECONDS));
+        assertEquals("encoded", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRejectWhenWaitTimesOut() {
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.matches(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return true;
+        });
+        passwordEncoder = new BoundedPasswordEncoder(delegate, 10, 1, 1, Duration.ofMillis(50), meterRegistry);
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> passwordEncoder.matches("q1w2e3", "encoded"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.TestcontainersConfiguration;
+import com.example.bankcards.dto.request.LoginUserRequestDto;
+import com.example.bankcards.dto.request.RegisterUserRequestDto;
+import com.example.bankcards.dto.response.JwtResponseDto;
+import com.example.bankcards.exception.RegistrationFailedException;
+import com.example.bankcards.util.JwtAccessTokenUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "logging.file.name=",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class AuthQueryCountTests {
+
+    private static final String USERNAME = "vlad123";
+    private static final String PASSWORD = "q1w2e3";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtAccessTokenUtils jwtAccessTokenUtils;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void createAuthToken_ShouldIssueSingleStatement() {
+        JwtResponseDto response = authService.createAuthToken(new LoginUserRequestDto(USERNAME, PASSWORD));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(USERNAME, jwtAccessTokenUtils.getUsername(response.getAccessToken()));
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), Set.copyOf(jwtAccessTokenUtils.getRoles(response.getAccessToken())));
+    }
+
+    @Test
+    void registerUser_ShouldCheckExistingUsernameWithSingleStatement() {
+        RegisterUserRequestDto request = new RegisterUserRequestDto("Vlad", "Panasik", USERNAME, PASSWORD, PASSWORD);
+
+        assertThrows(RegistrationFailedException.class, () -> authService.registerUser(request));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
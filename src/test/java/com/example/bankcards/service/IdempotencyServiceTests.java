@@ -0,0 +1,221 @@
+package com.example.bankcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.example.bankcards.dto.request.RechargeRequestDto;
+import com.example.bankcards.dto.request.TransferRequestDto;
+import com.example.bankcards.dto.request.WithdrawalRequestDto;
+import com.example.bankcards.dto.response.RechargeResponseDto;
+import com.example.bankcards.dto.response.TransferResponseDto;
+import com.example.bankcards.dto.response.WithdrawalResponseDto;
+import com.example.bankcards.exception.IdempotencyKeyConflictException;
+import com.example.bankcards.exception.InvalidIdempotencyKeyException;
+import com.example.bankcards.model.IdempotencyKey;
+import com.example.bankcards.model.enums.OperationType;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
+import com.example.bankcards.service.impl.IdempotencyServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+class IdempotencyServiceTests {
+
+    private static final String USERNAME = "vlad123";
+    private static final String KEY = "3f2a9c1e-retry";
+
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    private IdempotencyService idempotencyService;
+    private TransferRequestDto transferRequestDto;
+    private TransferResponseDto transferResponseDto;
+    private ObjectMapper objectMapper;
+    private String reservedHash;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyKeyRepository = mock(IdempotencyKeyRepository.class);
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        idempotencyService = new IdempotencyServiceImpl(idempotencyKeyRepository, objectMapper,
+                Duration.ofHours(24), 100, 2);
+
+        transferRequestDto = new TransferRequestDto();
+        transferRequestDto.setNumber("1111 2222 3333 4444");
+        transferRequestDto.setTargetNumber("5555 6666 7777 8888");
+        transferRequestDto.setAmount(BigDecimal.TEN);
+
+        transferResponseDto = TransferResponseDto.builder()
+                .cardId(UUID.randomUUID())
+                .transferAmount(BigDecimal.TEN)
+                .balance(BigDecimal.valueOf(90))
+                .transferTime(LocalDateTime.of(2025, 4, 14, 14, 30))
+                .build();
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void testRequestWithoutKeyIsNotTracked() {
+        assertTrue(idempotencyService.reserve(USERNAME, null, OperationType.TRANSFER, transferRequestDto,
+                TransferResponseDto.class).isEmpty());
+        assertSame(transferResponseDto, idempotencyService.complete(USERNAME, null, OperationType.TRANSFER,
+                transferRequestDto, transferResponseDto));
+
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @Test
+    void testFirstRequestReservesKey() {
+        when(idempotencyKeyRepository.reserve(eq(USERNAME), eq(KEY), anyString(), any(), any())).thenReturn(1);
+
+        assertTrue(reserve(transferRequestDto).isEmpty());
+
+        verify(idempotencyKeyRepository, never()).findForUpdateByUsernameAndIdempotencyKey(any(), any());
+    }
+
+    @Test
+    void testCompletedResponseIsCachedAfterCommit() {
+        idempotencyService.complete(USERNAME, KEY, OperationType.TRANSFER, transferRequestDto, transferResponseDto);
+
+        verify(idempotencyKeyRepository).complete(eq(USERNAME), eq(KEY), anyString());
+        assertTrue(findCached(transferRequestDto).isEmpty());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(transferResponseDto, findCached(transferRequestDto).orElseThrow());
+        assertEquals(transferResponseDto, reserve(transferRequestDto).orElseThrow());
+        verify(idempotencyKeyRepository, never()).reserve(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testRetryReturnsStoredResponse() throws Exception {
+        keyIsTaken(objectMapper.writeValueAsString(transferResponseDto));
+
+        assertEquals(transferResponseDto, reserve(transferRequestDto).orElseThrow());
+        assertEquals(transferResponseDto, findCached(transferRequestDto).orElseThrow());
+    }
+
+    @Test
+    void testWithdrawalAndRechargeResponsesAreReplayed() {
+        WithdrawalRequestDto withdrawalRequestDto = new WithdrawalRequestDto();
+        withdrawalRequestDto.setNumber(transferRequestDto.getNumber());
+        withdrawalRequestDto.setAmount(BigDecimal.TEN);
+        WithdrawalResponseDto withdrawalResponseDto = WithdrawalResponseDto.builder()
+                .cardId(UUID.randomUUID())
+                .withdrawalAmount(BigDecimal.TEN)
+                .remainingBalance(BigDecimal.valueOf(90))
+                .transferTime(LocalDateTime.of(2025, 4, 14, 14, 30))
+                .build();
+        idempotencyService.complete(USERNAME, "withdrawal", OperationType.WITHDRAWAL, withdrawalRequestDto, withdrawalResponseDto);
+
+        RechargeRequestDto rechargeRequestDto = new RechargeRequestDto();
+        rechargeRequestDto.setNumber(transferRequestDto.getNumber());
+        rechargeRequestDto.setAmount(BigDecimal.TEN);
+        RechargeResponseDto rechargeResponseDto = RechargeResponseDto.builder()
+                .cardId(UUID.randomUUID())
+                .rechargeAmount(BigDecimal.TEN)
+                .balance(BigDecimal.valueOf(110))
+                .transferTime(LocalDateTime.of(2025, 4, 14, 14, 30))
+                .build();
+        idempotencyService.complete(USERNAME, "recharge", OperationType.RECHARGE, rechargeRequestDto, rechargeResponseDto);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(withdrawalResponseDto, idempotencyService.findCachedResponse(USERNAME, "withdrawal",
+                OperationType.WITHDRAWAL, withdrawalRequestDto, WithdrawalResponseDto.class).orElseThrow());
+        assertEquals(rechargeResponseDto, idempotencyService.findCachedResponse(USERNAME, "recharge",
+                OperationType.RECHARGE, rechargeRequestDto, RechargeResponseDto.class).orElseThrow());
+    }
+
+    @Test
+    void testRetryAfterRejectedOperationRepeatsIt() {
+        keyIsTaken(null);
+
+        assertTrue(reserve(transferRequestDto).isEmpty());
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() throws Exception {
+        when(idempotencyKeyRepository.reserve(eq(USERNAME), eq(KEY), anyString(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findForUpdateByUsernameAndIdempotencyKey(USERNAME, KEY))
+                .thenReturn(Optional.of(IdempotencyKey.builder()
+                        .username(USERNAME)
+                        .idempotencyKey(KEY)
+                        .requestHash("0".repeat(64))
+                        .responseBody(objectMapper.writeValueAsString(transferResponseDto))
+                        .build()));
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> reserve(transferRequestDto));
+    }
+
+    @Test
+    void testKeyReusedForDifferentOperationIsRejectedFromCache() {
+        idempotencyService.complete(USERNAME, KEY, OperationType.TRANSFER, transferRequestDto, transferResponseDto);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> idempotencyService.findCachedResponse(USERNAME, KEY,
+                OperationType.WITHDRAWAL, transferRequestDto, TransferResponseDto.class));
+    }
+
+    @Test
+    void testTooLongKeyIsRejected() {
+        String key = "k".repeat(256);
+
+        assertThrows(InvalidIdempotencyKeyException.class, () -> idempotencyService.reserve(USERNAME, key,
+                OperationType.TRANSFER, transferRequestDto, TransferResponseDto.class));
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @Test
+    void testPartKeyLeavesRoomForPartNumber() {
+        assertEquals(KEY + "#3", idempotencyService.partKey(KEY, 3));
+        assertNull(idempotencyService.partKey(null, 0));
+        assertThrows(InvalidIdempotencyKeyException.class, () -> idempotencyService.partKey("k".repeat(245), 0));
+    }
+
+    @Test
+    void testExpiredKeysAreDeletedInBatches() {
+        when(idempotencyKeyRepository.deleteExpired(any(), eq(2))).thenReturn(2, 2, 1);
+
+        idempotencyService.deleteExpiredKeys();
+
+        verify(idempotencyKeyRepository, times(3)).deleteExpired(any(), eq(2));
+    }
+
+    private void keyIsTaken(String responseBody) {
+        when(idempotencyKeyRepository.reserve(eq(USERNAME), eq(KEY), anyString(), any(), any())).thenAnswer(invocation -> {
+            reservedHash = invocation.getArgument(2);
+            return 0;
+        });
+        when(idempotencyKeyRepository.findForUpdateByUsernameAndIdempotencyKey(USERNAME, KEY))
+                .thenAnswer(invocation -> Optional.of(IdempotencyKey.builder()
+                        .username(USERNAME)
+                        .idempotencyKey(KEY)
+                        .requestHash(reservedHash)
+                        .responseBody(responseBody)
+                        .build()));
+    }
+
+    private Optional<TransferResponseDto> reserve(TransferRequestDto request) {
+        return idempotencyService.reserve(USERNAME, KEY, OperationType.TRANSFER, request, TransferResponseDto.class);
+    }
+
+    private Optional<TransferResponseDto> findCached(TransferRequestDto request) {
+        return idempotencyService.findCachedResponse(USERNAME, KEY, OperationType.TRANSFER, request,
+                TransferResponseDto.class);
+    }
+}
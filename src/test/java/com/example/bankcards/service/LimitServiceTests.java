@@ -8,6 +8,7 @@ import com.example.bankcards.model.Card;
 import com.example.bankcards.model.Limit;
 import com.example.bankcards.repository.LimitRepository;
 import com.example.bankcards.service.impl.LimitServiceImpl;
+import com.example.bankcards.util.CardLimitCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -27,6 +28,9 @@ class LimitServiceTests {
     @Mock
     private LimitMapper limitMapper;
 
+    @Mock
+    private CardLimitCache cardLimitCache;
+
     @InjectMocks
     private LimitServiceImpl limitService;
 
@@ -86,6 +90,7 @@ class LimitServiceTests {
         assertTrue(limit.getUpdatedAt().isAfter(beforeUpdate));
 
         verify(limitRepository).save(limit);
+        verify(cardLimitCache).evict(cardId);
 
         assertEquals(limit.getCard().getId(), result.getCardId());
         assertEquals(limit.getDailyLimit(), result.getDailyLimit());
@@ -107,6 +112,7 @@ class LimitServiceTests {
         assertTrue(limit.getUpdatedAt().isAfter(beforeUpdate));
 
         verify(limitRepository).save(limit);
+        verify(cardLimitCache).evict(cardId);
 
         assertEquals(limit.getCard().getId(), result.getCardId());
     }
@@ -122,5 +128,6 @@ class LimitServiceTests {
 
         verify(limitRepository, never()).save(any());
         verify(limitMapper, never()).toDto(any());
+        verify(cardLimitCache, never()).evict(any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.example.bankcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.bankcards.dto.request.TransferRequestDto;
+import com.example.bankcards.dto.request.WithdrawalRequestDto;
+import com.example.bankcards.dto.response.TransferResponseDto;
+import com.example.bankcards.dto.response.WithdrawalResponseDto;
+import com.example.bankcards.exception.CardBalanceException;
+import com.example.bankcards.exception.CardStatusException;
+import com.example.bankcards.model.enums.OperationResult;
+import com.example.bankcards.model.enums.OperationType;
+import com.example.bankcards.service.impl.RetryingTransferService;
+import com.example.bankcards.service.impl.TransferServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+class RetryingTransferServiceTests {
+
+    @Mock
+    private TransferServiceImpl transferServiceImpl;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private RetryingTransferService transferService;
+
+    private String username = "user";
+    private TransferRequestDto transferRequestDto = new TransferRequestDto();
+    private WithdrawalRequestDto withdrawalRequestDto = new WithdrawalRequestDto();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(transferService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(transferService, "retryBackoff", Duration.ZERO);
+        when(idempotencyService.findCachedResponse(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void transfer_ShouldRecordSuccessfulOperationAndRetries() {
+        TransferResponseDto response = new TransferResponseDto();
+        when(transferServiceImpl.transfer(username, null, transferRequestDto))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenReturn(response);
+
+        assertSame(response, transferService.transfer(username, null, transferRequestDto));
+
+        assertEquals(1, operationTimer(OperationType.TRANSFER, OperationResult.SUCCESSFULLY, "none").count());
+        assertEquals(1, meterRegistry.get("card.operation.retries").tag("operation", "TRANSFER").counter().count());
+    }
+
+    @Test
+    void withdrawal_ShouldTagResultOfRejectedOperation() {
+        when(transferServiceImpl.withdrawal(username, null, withdrawalRequestDto))
+                .thenThrow(new CardStatusException("blocked", OperationResult.CARD_BLOCKED))
+                .thenThrow(new CardBalanceException("balance"));
+
+        assertThrows(CardStatusException.class, () -> transferService.withdrawal(username, null, withdrawalRequestDto));
+        assertThrows(CardBalanceException.class, () -> transferService.withdrawal(username, null, withdrawalRequestDto));
+
+        assertEquals(1, operationTimer(OperationType.WITHDRAWAL, OperationResult.CARD_BLOCKED, "CardStatusException").count());
+        assertEquals(1, operationTimer(OperationType.WITHDRAWAL, OperationResult.FAILED, "CardBalanceException").count());
+    }
+
+    @Test
+    void withdrawal_ShouldNotTimeReplayFromCache() {
+        WithdrawalResponseDto response = new WithdrawalResponseDto();
+        when(idempotencyService.findCachedResponse(username, "key", OperationType.WITHDRAWAL,
+                withdrawalRequestDto, WithdrawalResponseDto.class)).thenReturn(Optional.of(response));
+
+        assertSame(response, transferService.withdrawal(username, "key", withdrawalRequestDto));
+
+        verifyNoInteractions(transferServiceImpl);
+        assertNull(meterRegistry.find("card.operation").timer());
+    }
+
+    private Timer operationTimer(OperationType operationType, OperationResult result, String exception) {
+        return meterRegistry.get("card.operation")
+                .tags("operation", operationType.name(), "result", result.name(), "exception", exception)
+                .timer();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.TestcontainersConfiguration;
+import com.example.bankcards.model.Card;
+import com.example.bankcards.model.Limit;
+import com.example.bankcards.model.Transaction;
+import com.example.bankcards.model.User;
+import com.example.bankcards.model.enums.OperationResult;
+import com.example.bankcards.model.enums.OperationType;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LimitRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.CardNumberMasker;
+import com.example.bankcards.util.factory.TransactionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares audit inserts per second for one row per transaction and for bulk transfer chunks,
+ * where the rows of one transaction go out as a JDBC batch.
+ * Runs only with {@code -Dbenchmark=true}.
+ */
+@Slf4j
+@SpringBootTest(properties = "logging.file.name=")
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransactionAuditBenchmarkTests {
+
+    private static final int ROWS = 20_000;
+    private static final int CHUNK_SIZE = 100;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private LimitRepository limitRepository;
+
+    @Autowired
+    private CardNumberHasher cardNumberHasher;
+
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .firstName("Audit")
+                .lastName("Benchmark")
+                .username("audit_" + UUID.randomUUID())
+                .password("password")
+                .build());
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String number = String.format("%04d %04d %04d %04d", random.nextInt(10000), random.nextInt(10000),
+                random.nextInt(10000), random.nextInt(10000));
+        Card newCard = Card.builder()
+                .user(user)
+                .number(number)
+                .numberHash(cardNumberHasher.hash(number))
+                .maskedNumber(CardNumberMasker.mask(number))
+                .build();
+        card = cardRepository.save(newCard);
+        limitRepository.save(new Limit(card));
+    }
+
+    @Test
+    void compareInsertThroughput() {
+        long before = transactionRepository.count();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            transactionTemplate.executeWithoutResult(status -> transactionRepository.save(transaction()));
+        }
+        double perOperation = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROWS; i += CHUNK_SIZE) {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int j = 0; j < CHUNK_SIZE; j++) {
+                    transactionRepository.save(transaction());
+                }
+            });
+        }
+        double perChunk = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        log.info("Audit inserts per second: one row per transaction {}, chunks of {} rows {}",
+                Math.round(perOperation), CHUNK_SIZE, Math.round(perChunk));
+        assertEquals(before + 2L * ROWS, transactionRepository.count());
+    }
+
+    private Transaction transaction() {
+        return TransactionFactory.create(card, BigDecimal.ONE, OperationType.RECHARGE, OperationResult.SUCCESSFULLY);
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.TestcontainersConfiguration;
+import com.example.bankcards.dto.request.BulkTransferRequestDto;
+import com.example.bankcards.dto.request.RechargeRequestDto;
+import com.example.bankcards.dto.request.TransferRequestDto;
+import com.example.bankcards.dto.request.WithdrawalRequestDto;
+import com.example.bankcards.dto.response.BulkTransferItemDto;
+import com.example.bankcards.dto.response.BulkTransferResponseDto;
+import com.example.bankcards.exception.CardException;
+import com.example.bankcards.model.Card;
+import com.example.bankcards.model.CardUsage;
+import com.example.bankcards.model.Limit;
+import com.example.bankcards.model.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardUsageRepository;
+import com.example.bankcards.repository.LimitRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.impl.TransferServiceImpl;
+import com.example.bankcards.util.CardLockingMode;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.CardNumberMasker;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest(properties = "logging.file.name=")
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class TransferConcurrencyTests {
+
+    private static final int THREADS = 64;
+    private static final int OPERATIONS_PER_THREAD = 10;
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1000);
+
+    private enum Operation { RECHARGE, WITHDRAWAL, TRANSFER, TRANSFER_BACK }
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private TransferServiceImpl transferServiceImpl;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private CardUsageRepository cardUsageRepository;
+
+    @Autowired
+    private LimitRepository limitRepository;
+
+    @Autowired
+    private CardNumberHasher cardNumberHasher;
+
+    private Object lockingModeHolder;
+    private Object defaultLockingMode;
+    private String username;
+    private Card card;
+    private Card targetCard;
+
+    @BeforeEach
+    void setUp() {
+        lockingModeHolder = AopTestUtils.getTargetObject(transferServiceImpl);
+        defaultLockingMode = ReflectionTestUtils.getField(lockingModeHolder, "lockingMode");
+
+        User user = User.builder()
+                .firstName("Stress")
+                .lastName("Test")
+                .username("stress_" + UUID.randomUUID())
+                .password("password")
+                .build();
+        userRepository.save(user);
+        username = user.getUsername();
+
+        card = createCard(user);
+        targetCard = createCard(user);
+        transferService.recharge(username, null, recharge(card, INITIAL_BALANCE));
+        transferService.recharge(username, null, recharge(targetCard, INITIAL_BALANCE));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(lockingModeHolder, "lockingMode", defaultLockingMode);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CardLockingMode.class)
+    void concurrentOperations_ShouldNotLoseUpdates(CardLockingMode lockingMode) throws InterruptedException {
+        ReflectionTestUtils.setField(lockingModeHolder, "lockingMode", lockingMode);
+
+        Map<Operation, AtomicInteger> succeeded = new ConcurrentHashMap<>();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        for (Operation operation : Operation.values()) {
+            succeeded.put(operation, new AtomicInteger());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < THREADS; i++) {
+            Operation operation = Operation.values()[i % Operation.values().length];
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                    try {
+                        execute(operation);
+                        succeeded.get(operation).incrementAndGet();
+                    } catch (CardException cardException) {
+                        rejected.incrementAndGet();
+                    } catch (ConcurrencyFailureException concurrencyFailureException) {
+                        conflicts.incrementAndGet();
+                    } catch (Throwable throwable) {
+                        unexpected.add(throwable);
+                    }
+                }
+                return null;
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+        log.info("{}: {} operations in {} s ({} ops/s), {} rejected, {} conflicts after retries",
+                lockingMode, THREADS * OPERATIONS_PER_THREAD, String.format("%.2f", seconds),
+                String.format("%.0f", THREADS * OPERATIONS_PER_THREAD / seconds), rejected.get(), conflicts.get());
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+
+        int recharges = succeeded.get(Operation.RECHARGE).get();
+        int withdrawals = succeeded.get(Operation.WITHDRAWAL).get();
+        int transfers = succeeded.get(Operation.TRANSFER).get();
+        int transfersBack = succeeded.get(Operation.TRANSFER_BACK).get();
+
+        BigDecimal expectedBalance = INITIAL_BALANCE
+                .add(BigDecimal.valueOf(recharges - withdrawals - transfers + transfersBack));
+        BigDecimal expectedTargetBalance = INITIAL_BALANCE.add(BigDecimal.valueOf(transfers - transfersBack));
+
+        assertEquals(0, expectedBalance.compareTo(cardRepository.findById(card.getId()).orElseThrow().getBalance()));
+        assertEquals(0, expectedTargetBalance.compareTo(cardRepository.findById(targetCard.getId()).orElseThrow().getBalance()));
+
+        CardUsage cardUsage = cardUsageRepository.findById(card.getId()).orElseThrow();
+        assertEquals(0, BigDecimal.valueOf(withdrawals).compareTo(cardUsage.getDailyWithdrawn()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CardLockingMode.class)
+    void concurrentWithdrawals_ShouldDebitEveryCommittedWithdrawal(CardLockingMode lockingMode) throws InterruptedException {
+        ReflectionTestUtils.setField(lockingModeHolder, "lockingMode", lockingMode);
+
+        Limit limit = limitRepository.findByCardId(card.getId()).orElseThrow();
+        limit.setDailyLimit(INITIAL_BALANCE);
+        limit.setMonthlyLimit(INITIAL_BALANCE);
+        limitRepository.save(limit);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < THREADS; i++) {
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                    try {
+                        execute(Operation.WITHDRAWAL);
+                        succeeded.incrementAndGet();
+                    } catch (ConcurrencyFailureException concurrencyFailureException) {
+                        conflicts.incrementAndGet();
+                    } catch (Throwable throwable) {
+                        unexpected.add(throwable);
+                    }
+                }
+                return null;
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+        log.info("{} withdrawals: {} operations in {} s ({} ops/s), {} conflicts after retries",
+                lockingMode, THREADS * OPERATIONS_PER_THREAD, String.format("%.2f", seconds),
+                String.format("%.0f", THREADS * OPERATIONS_PER_THREAD / seconds), conflicts.get());
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+
+        BigDecimal withdrawn = BigDecimal.valueOf(succeeded.get());
+        assertEquals(0, INITIAL_BALANCE.subtract(withdrawn)
+                .compareTo(cardRepository.findById(card.getId()).orElseThrow().getBalance()));
+        assertEquals(0, withdrawn.compareTo(cardUsageRepository.findById(card.getId()).orElseThrow().getDailyWithdrawn()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CardLockingMode.class)
+    void concurrentBulkTransfers_ShouldTakeLocksInSameOrder(CardLockingMode lockingMode) throws InterruptedException {
+        ReflectionTestUtils.setField(lockingModeHolder, "lockingMode", lockingMode);
+
+        AtomicInteger transferred = new AtomicInteger();
+        AtomicInteger transferredBack = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<BulkTransferItemDto> failed = new CopyOnWriteArrayList<>();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < THREADS; i++) {
+            boolean back = i % 2 == 1;
+            executor.submit(() -> {
+                start.await();
+                try {
+                    transferService.transfer(username, null, back ? transfer(card, targetCard) : transfer(targetCard, card));
+                    (back ? transferred : transferredBack).incrementAndGet();
+                } catch (ConcurrencyFailureException concurrencyFailureException) {
+                    conflicts.incrementAndGet();
+                } catch (Throwable throwable) {
+                    unexpected.add(throwable);
+                }
+
+                try {
+                    BulkTransferRequestDto bulkTransferRequestDto = new BulkTransferRequestDto();
+                    bulkTransferRequestDto.setTransfers(Collections.nCopies(OPERATIONS_PER_THREAD,
+                            back ? transfer(targetCard, card) : transfer(card, targetCard)));
+                    BulkTransferResponseDto response = transferService.bulkTransfer(username, null, bulkTransferRequestDto);
+                    (back ? transferredBack : transferred).addAndGet(response.getSucceeded());
+                    response.getResults().stream().filter(result -> result.getCode() != 200).forEach(failed::add);
+                } catch (Throwable throwable) {
+                    unexpected.add(throwable);
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+
+        log.info("{} bulk transfers: {} single transfers lost to conflicts", lockingMode, conflicts.get());
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        assertTrue(failed.isEmpty(), () -> "Failed bulk items: " + failed);
+        BigDecimal moved = BigDecimal.valueOf(transferred.get() - transferredBack.get());
+        assertEquals(0, INITIAL_BALANCE.subtract(moved)
+                .compareTo(cardRepository.findById(card.getId()).orElseThrow().getBalance()));
+        assertEquals(0, INITIAL_BALANCE.add(moved)
+                .compareTo(cardRepository.findById(targetCard.getId()).orElseThrow().getBalance()));
+    }
+
+    private void execute(Operation operation) {
+        switch (operation) {
+            case RECHARGE -> transferService.recharge(username, null, recharge(card, BigDecimal.ONE));
+            case WITHDRAWAL -> {
+                WithdrawalRequestDto withdrawalRequestDto = new WithdrawalRequestDto();
+                withdrawalRequestDto.setNumber(card.getNumber());
+                withdrawalRequestDto.setAmount(BigDecimal.ONE);
+                transferService.withdrawal(username, null, withdrawalRequestDto);
+            }
+            case TRANSFER -> transferService.transfer(username, null, transfer(card, targetCard));
+            case TRANSFER_BACK -> transferService.transfer(username, null, transfer(targetCard, card));
+        }
+    }
+
+    private Card createCard(User user) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String number = String.format("%04d %04d %04d %04d", random.nextInt(10000), random.nextInt(10000),
+                random.nextInt(10000), random.nextInt(10000));
+        Card newCard = Card.builder()
+                .user(user)
+                .number(number)
+                .numberHash(cardNumberHasher.hash(number))
+                .maskedNumber(CardNumberMasker.mask(number))
+                .build();
+
+        Card savedCard = cardRepository.save(newCard);
+        limitRepository.save(new Limit(savedCard));
+        return savedCard;
+    }
+
+    private RechargeRequestDto recharge(Card rechargedCard, BigDecimal amount) {
+        RechargeRequestDto rechargeRequestDto = new RechargeRequestDto();
+        rechargeRequestDto.setNumber(rechargedCard.getNumber());
+        rechargeRequestDto.setAmount(amount);
+        return rechargeRequestDto;
+    }
+
+    private TransferRequestDto transfer(Card from, Card to) {
+        TransferRequestDto transferRequestDto = new TransferRequestDto();
+        transferRequestDto.setNumber(from.getNumber());
+        transferRequestDto.setTargetNumber(to.getNumber());
+        transferRequestDto.setAmount(BigDecimal.ONE);
+        return transferRequestDto;
+    }
+}
@@ -12,15 +12,28 @@ import com.example.bankcards.model.enums.OperationType;
 import com.example.bankcards.dto.request.*;
 import com.example.bankcards.dto.response.*;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardUsageRepository;
 import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.repository.projection.CardResolution;
 import com.example.bankcards.service.impl.TransferServiceImpl;
+import com.example.bankcards.util.CardLockingMode;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.CardNumberMasker;
+import com.example.bankcards.util.CardResolutionCache;
 import com.example.bankcards.util.CardValidationUtils;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -38,6 +51,21 @@ class TransferServiceTests {
     @Mock
     private CardMapper cardMapper;
 
+    @Mock
+    private CardUsageRepository cardUsageRepository;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private CardResolutionCache cardResolutionCache;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private CardNumberHasher cardNumberHasher = new CardNumberHasher("test-hash-key", "HmacSHA256");
+
     @InjectMocks
     private TransferServiceImpl transferService;
 
@@ -53,6 +81,9 @@ class TransferServiceTests {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(transferService, "lockingMode", CardLockingMode.OPTIMISTIC);
+        when(idempotencyService.complete(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(4));
 
         card = new Card();
         card.setId(UUID.randomUUID());
@@ -87,14 +118,15 @@ class TransferServiceTests {
 
     @Test
     void shouldWithdrawSuccessfully_whenValidRequest() {
-        when(cardRepository.findCardByUserUsernameAndNumber(username, card.getNumber())).thenReturn(Optional.of(card));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
         when(cardMapper.mapNumberFromCardToCardDto(card.getNumber())).thenReturn(card.getNumber());
 
-        WithdrawalResponseDto response = transferService.withdrawal(username, withdrawalRequestDto);
+        WithdrawalResponseDto response = transferService.withdrawal(username, null, withdrawalRequestDto);
 
         verify(cardValidationUtils).validateStatus(card, amount, OperationType.WITHDRAWAL);
         verify(cardValidationUtils).validateBalance(card, amount, OperationType.WITHDRAWAL);
         verify(cardValidationUtils).validateLimit(card, amount, OperationType.WITHDRAWAL);
+        verify(cardUsageRepository).recordWithdrawal(eq(card.getId()), eq(amount), any(LocalDate.class));
 
         assertEquals(card.getId(), response.getCardId());
         assertEquals(card.getNumber(), response.getNumber());
@@ -104,26 +136,27 @@ class TransferServiceTests {
 
     @Test
     void shouldThrowCardNotFoundException_whenWithdrawalCardNotFound() {
-        when(cardRepository.findCardByUserUsernameAndNumber(username, withdrawalRequestDto.getNumber())).thenReturn(Optional.empty());
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(withdrawalRequestDto.getNumber()))).thenReturn(Optional.empty());
 
-        assertThrows(CardNotFoundException.class, () -> transferService.withdrawal(username, withdrawalRequestDto));
+        assertThrows(CardNotFoundException.class, () -> transferService.withdrawal(username, null, withdrawalRequestDto));
     }
 
     @Test
     void shouldThrowCardStatusException_whenWithdrawalCardBlocked() {
         card.setStatus(CardStatus.BLOCKED);
-        when(cardRepository.findCardByUserUsernameAndNumber(username, card.getNumber())).thenReturn(Optional.of(card));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
         doThrow(CardStatusException.class).when(cardValidationUtils).validateStatus(card, amount, OperationType.WITHDRAWAL);
 
-        assertThrows(CardStatusException.class, () -> transferService.withdrawal(username, withdrawalRequestDto));
+        assertThrows(CardStatusException.class, () -> transferService.withdrawal(username, null, withdrawalRequestDto));
+        verify(cardUsageRepository, never()).recordWithdrawal(any(), any(), any());
     }
 
     @Test
     void shouldRechargeSuccessfully_whenValidRequest() {
-        when(cardRepository.findCardByUserUsernameAndNumber(username, card.getNumber())).thenReturn(Optional.of(card));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
         when(cardMapper.mapNumberFromCardToCardDto(card.getNumber())).thenReturn(card.getNumber());
 
-        RechargeResponseDto response = transferService.recharge(username, rechargeRequestDto);
+        RechargeResponseDto response = transferService.recharge(username, null, rechargeRequestDto);
 
         verify(cardValidationUtils).validateStatus(card, amount, OperationType.RECHARGE);
         assertEquals(card.getId(), response.getCardId());
@@ -135,18 +168,18 @@ class TransferServiceTests {
     @Test
     void shouldThrowCardStatusException_whenRechargeCardBlocked() {
         card.setStatus(CardStatus.BLOCKED);
-        when(cardRepository.findCardByUserUsernameAndNumber(username, card.getNumber())).thenReturn(Optional.of(card));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
         doThrow(CardStatusException.class).when(cardValidationUtils).validateStatus(card, amount, OperationType.RECHARGE);
 
-        assertThrows(CardStatusException.class, () -> transferService.recharge(username, rechargeRequestDto));
+        assertThrows(CardStatusException.class, () -> transferService.recharge(username, null, rechargeRequestDto));
     }
 
     @Test
     void shouldTransferSuccessfully_whenValidRequest() {
-        when(cardRepository.findCardByUserUsernameAndNumber(username, card.getNumber())).thenReturn(Optional.of(card));
-        when(cardRepository.findCardByUserUsernameAndNumber(username, targetCard.getNumber())).thenReturn(Optional.of(targetCard));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(targetCard.getNumber()))).thenReturn(Optional.of(targetCard));
 
-        TransferResponseDto response = transferService.transfer(username, transferRequestDto);
+        TransferResponseDto response = transferService.transfer(username, null, transferRequestDto);
 
         verify(cardValidationUtils).validateStatus(card, amount, OperationType.TRANSFER);
         verify(cardValidationUtils).validateStatus(targetCard, amount, OperationType.TRANSFER);
@@ -160,52 +193,305 @@ class TransferServiceTests {
 
     @Test
     void shouldThrowCardNotFoundException_whenTransferSourceCardNotFound() {
-        when(cardRepository.findCardByUserUsernameAndNumber(username, transferRequestDto.getNumber())).thenReturn(Optional.empty());
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(transferRequestDto.getNumber()))).thenReturn(Optional.empty());
 
-        assertThrows(CardNotFoundException.class, () -> transferService.transfer(username, transferRequestDto));
+        assertThrows(CardNotFoundException.class, () -> transferService.transfer(username, null, transferRequestDto));
     }
 
     @Test
     void shouldThrowCardNotFoundException_whenTransferTargetCardNotFound() {
-        when(cardRepository.findCardByUserUsernameAndNumber(username, card.getNumber())).thenReturn(Optional.of(card));
-        when(cardRepository.findCardByUserUsernameAndNumber(username, transferRequestDto.getTargetNumber())).thenReturn(Optional.empty());
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(transferRequestDto.getTargetNumber()))).thenReturn(Optional.empty());
 
-        assertThrows(CardNotFoundException.class, () -> transferService.transfer(username, transferRequestDto));
+        assertThrows(CardNotFoundException.class, () -> transferService.transfer(username, null, transferRequestDto));
     }
 
     @Test
     void shouldThrowCardBalanceException_whenTransferBalanceInsufficient() {
-        when(cardRepository.findCardByUserUsernameAndNumber(username, card.getNumber())).thenReturn(Optional.of(card));
-        when(cardRepository.findCardByUserUsernameAndNumber(username, targetCard.getNumber())).thenReturn(Optional.of(targetCard));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(targetCard.getNumber()))).thenReturn(Optional.of(targetCard));
 
         doThrow(CardBalanceException.class)
                 .when(cardValidationUtils)
                 .validateBalanceForTransfer(card, targetCard, amount, OperationType.TRANSFER);
 
-        assertThrows(CardBalanceException.class, () -> transferService.transfer(username, transferRequestDto));
+        assertThrows(CardBalanceException.class, () -> transferService.transfer(username, null, transferRequestDto));
     }
 
     @Test
     void shouldThrowCardsAreTheSameException_whenTransferToSameCard() {
-        when(cardRepository.findCardByUserUsernameAndNumber(username, card.getNumber())).thenReturn(Optional.of(card));
-        when(cardRepository.findCardByUserUsernameAndNumber(username, targetCard.getNumber())).thenReturn(Optional.of(card));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(targetCard.getNumber()))).thenReturn(Optional.of(card));
 
         doThrow(CardsAreTheSameException.class)
                 .when(cardValidationUtils)
                 .validateNumbers(card, card.getId(), amount, OperationType.TRANSFER);
 
-        assertThrows(CardsAreTheSameException.class, () -> transferService.transfer(username, transferRequestDto));
+        assertThrows(CardsAreTheSameException.class, () -> transferService.transfer(username, null, transferRequestDto));
     }
 
     @Test
     void shouldThrowCardStatusException_whenTransferCardBlocked() {
-        when(cardRepository.findCardByUserUsernameAndNumber(username, card.getNumber())).thenReturn(Optional.of(card));
-        when(cardRepository.findCardByUserUsernameAndNumber(username, targetCard.getNumber())).thenReturn(Optional.of(targetCard));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(targetCard.getNumber()))).thenReturn(Optional.of(targetCard));
 
         doThrow(CardStatusException.class)
                 .when(cardValidationUtils)
                 .validateStatus(card, amount, OperationType.TRANSFER);
 
-        assertThrows(CardStatusException.class, () -> transferService.transfer(username, transferRequestDto));
+        assertThrows(CardStatusException.class, () -> transferService.transfer(username, null, transferRequestDto));
+    }
+
+    @Test
+    void shouldLockCardForUpdate_whenWithdrawalInPessimisticMode() {
+        ReflectionTestUtils.setField(transferService, "lockingMode", CardLockingMode.PESSIMISTIC);
+        when(cardRepository.findCardForUpdateByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
+
+        transferService.withdrawal(username, null, withdrawalRequestDto);
+
+        verify(cardRepository, never()).findCardByUserUsernameAndNumberHash(any(), any());
+        assertEquals(BigDecimal.valueOf(900L), card.getBalance());
+    }
+
+    @Test
+    void shouldTransferOnCachedCardsWithoutLoadingThem_whenTransferInPessimisticMode() {
+        ReflectionTestUtils.setField(transferService, "lockingMode", CardLockingMode.PESSIMISTIC);
+        mockCardResolution(card);
+        mockCardResolution(targetCard);
+        when(cardRepository.debit(card.getId(), amount)).thenReturn(Optional.of(BigDecimal.valueOf(900L)));
+        when(cardRepository.credit(targetCard.getId(), amount)).thenReturn(1);
+
+        TransferResponseDto response = transferService.transfer(username, null, transferRequestDto);
+
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).lockCardsByIdIn(List.of(card.getId(), targetCard.getId()));
+        inOrder.verify(cardRepository).debit(card.getId(), amount);
+        inOrder.verify(cardRepository).credit(targetCard.getId(), amount);
+        verify(cardRepository, never()).findCardForUpdateByUserUsernameAndNumberHash(any(), any());
+        verifyNoInteractions(cardValidationUtils);
+        verify(transactionRepository).save(any());
+        assertEquals(targetCard.getId(), response.getTargetCardId());
+        assertEquals("**** **** **** 8888", response.getTargetNumber());
+        assertEquals(BigDecimal.valueOf(900L), response.getBalance());
+    }
+
+    @Test
+    void shouldValidateLoadedCards_whenCachedCardIsBlocked() {
+        ReflectionTestUtils.setField(transferService, "lockingMode", CardLockingMode.PESSIMISTIC);
+        card.setStatus(CardStatus.BLOCKED);
+        mockCardResolution(card);
+        mockCardResolution(targetCard);
+        when(cardRepository.findCardForUpdateByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
+        doThrow(CardStatusException.class).when(cardValidationUtils).validateStatus(card, amount, OperationType.TRANSFER);
+
+        assertThrows(CardStatusException.class, () -> transferService.transfer(username, null, transferRequestDto));
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).lockCardsByIdIn(List.of(card.getId(), targetCard.getId()));
+        inOrder.verify(cardRepository).findCardForUpdateByUserUsernameAndNumberHash(username, hash(card.getNumber()));
+        verify(cardRepository, never()).debit(any(), any());
+        verify(cardResolutionCache, never()).discard(any(), any());
+    }
+
+    @Test
+    void shouldDiscardTargetAndRetry_whenCreditRejected() {
+        ReflectionTestUtils.setField(transferService, "lockingMode", CardLockingMode.ATOMIC);
+        mockCardResolution(card);
+        mockCardResolution(targetCard);
+        when(cardRepository.debit(card.getId(), amount)).thenReturn(Optional.of(BigDecimal.valueOf(900L)));
+        when(cardRepository.credit(targetCard.getId(), amount)).thenReturn(0);
+
+        assertThrows(ConcurrencyFailureException.class, () -> transferService.transfer(username, null, transferRequestDto));
+        verify(cardResolutionCache).discard(username, hash(targetCard.getNumber()));
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldDebitWithSingleUpdate_whenWithdrawalInAtomicMode() {
+        ReflectionTestUtils.setField(transferService, "lockingMode", CardLockingMode.ATOMIC);
+        mockCardResolution(card);
+        when(cardUsageRepository.recordWithdrawalWithinLimits(eq(card.getId()), eq(amount), any(LocalDate.class))).thenReturn(1);
+        when(cardRepository.debit(card.getId(), amount)).thenReturn(Optional.of(BigDecimal.valueOf(900L)));
+        when(cardMapper.mapNumberFromCardToCardDto(card.getNumber())).thenReturn(card.getNumber());
+
+        WithdrawalResponseDto response = transferService.withdrawal(username, null, withdrawalRequestDto);
+
+        verify(cardRepository, never()).findCardByUserUsernameAndNumberHash(any(), any());
+        verifyNoInteractions(cardValidationUtils);
+        assertEquals(card.getId(), response.getCardId());
+        assertEquals(card.getUser().getId(), response.getUserId());
+        assertEquals(BigDecimal.valueOf(900L), response.getRemainingBalance());
+    }
+
+    @Test
+    void shouldReleaseUsageAndReportReason_whenAtomicDebitRejected() {
+        ReflectionTestUtils.setField(transferService, "lockingMode", CardLockingMode.ATOMIC);
+        mockCardResolution(card);
+        when(cardUsageRepository.recordWithdrawalWithinLimits(eq(card.getId()), eq(amount), any(LocalDate.class))).thenReturn(1);
+        when(cardRepository.debit(card.getId(), amount)).thenReturn(Optional.empty());
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
+        doThrow(CardBalanceException.class).when(cardValidationUtils).validateBalance(card, amount, OperationType.WITHDRAWAL);
+
+        assertThrows(CardBalanceException.class, () -> transferService.withdrawal(username, null, withdrawalRequestDto));
+        verify(cardUsageRepository).releaseWithdrawal(card.getId(), amount);
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldSkipDebit_whenAtomicWithdrawalExceedsLimit() {
+        ReflectionTestUtils.setField(transferService, "lockingMode", CardLockingMode.ATOMIC);
+        mockCardResolution(card);
+        when(cardUsageRepository.recordWithdrawalWithinLimits(eq(card.getId()), eq(amount), any(LocalDate.class))).thenReturn(0);
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
+        doThrow(CardLimitException.class).when(cardValidationUtils).validateLimit(card, amount, OperationType.WITHDRAWAL);
+
+        assertThrows(CardLimitException.class, () -> transferService.withdrawal(username, null, withdrawalRequestDto));
+        verify(cardRepository, never()).debit(any(), any());
+        verify(cardUsageRepository, never()).releaseWithdrawal(any(), any());
+    }
+
+    private void mockCardResolution(Card card) {
+        CardResolution cardResolution = new CardResolution(card.getId(), card.getUser() == null ? null : card.getUser().getId(),
+                CardNumberMasker.mask(card.getNumber()), card.getStatus(), LocalDate.now().plusYears(1));
+        when(cardResolutionCache.get(username, hash(card.getNumber()))).thenReturn(Optional.of(cardResolution));
+    }
+
+    @Test
+    void shouldReturnResultPerItem_whenBulkTransferHasRejectedItems() {
+        ReflectionTestUtils.setField(transferService, "bulkTransferChunkSize", 2);
+        card.setNumberHash(hash(card.getNumber()));
+        targetCard.setNumberHash(hash(targetCard.getNumber()));
+        when(cardRepository.lockCardsByUserUsernameAndNumberHashes(eq(username), anyCollection()))
+                .thenReturn(List.of(card, targetCard));
+
+        TransferRequestDto tooLarge = bulkItem(card, targetCard, BigDecimal.valueOf(5000L));
+        doThrow(new CardBalanceException("Amount 5000 more than balance 900"))
+                .when(cardValidationUtils).validateBalanceForTransfer(card, targetCard, tooLarge.getAmount(), OperationType.TRANSFER);
+        TransferRequestDto unknownCard = bulkItem(card, targetCard, amount);
+        unknownCard.setTargetNumber("9999 9999 9999 9999");
+
+        BulkTransferRequestDto bulkTransferRequestDto = new BulkTransferRequestDto();
+        bulkTransferRequestDto.setTransfers(List.of(transferRequestDto, tooLarge, unknownCard));
+
+        BulkTransferResponseDto response = transferService.bulkTransfer(username, null, bulkTransferRequestDto);
+
+        assertEquals(1, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertEquals(List.of(200, 400, 404), response.getResults().stream().map(BulkTransferItemDto::getCode).toList());
+        assertEquals(List.of(0, 1, 2), response.getResults().stream().map(BulkTransferItemDto::getIndex).toList());
+        assertEquals(BigDecimal.valueOf(900L), card.getBalance());
+        assertEquals(BigDecimal.valueOf(600L), targetCard.getBalance());
+        verify(cardRepository, times(2)).lockCardsByUserUsernameAndNumberHashes(eq(username), anyCollection());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(cardRepository, never()).findCardByUserUsernameAndNumberHash(any(), any());
+    }
+
+    @Test
+    void shouldFailWholeChunk_whenBulkTransferChunkIsRolledBack() {
+        ReflectionTestUtils.setField(transferService, "bulkTransferChunkSize", 2);
+        card.setNumberHash(hash(card.getNumber()));
+        targetCard.setNumberHash(hash(targetCard.getNumber()));
+        when(cardRepository.lockCardsByUserUsernameAndNumberHashes(eq(username), anyCollection()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenReturn(List.of(card, targetCard));
+
+        BulkTransferRequestDto bulkTransferRequestDto = new BulkTransferRequestDto();
+        bulkTransferRequestDto.setTransfers(List.of(transferRequestDto, transferRequestDto, transferRequestDto));
+
+        BulkTransferResponseDto response = transferService.bulkTransfer(username, null, bulkTransferRequestDto);
+
+        assertEquals(1, response.getSucceeded());
+        assertEquals(List.of(503, 503, 200), response.getResults().stream().map(BulkTransferItemDto::getCode).toList());
+    }
+
+    @Test
+    void shouldFailChunkAndContinue_whenBulkTransferChunkThrowsUnexpectedException() {
+        ReflectionTestUtils.setField(transferService, "bulkTransferChunkSize", 2);
+        card.setNumberHash(hash(card.getNumber()));
+        targetCard.setNumberHash(hash(targetCard.getNumber()));
+        when(cardRepository.lockCardsByUserUsernameAndNumberHashes(eq(username), anyCollection()))
+                .thenThrow(new IllegalStateException("unexpected"))
+                .thenReturn(List.of(card, targetCard));
+
+        BulkTransferRequestDto bulkTransferRequestDto = new BulkTransferRequestDto();
+        bulkTransferRequestDto.setTransfers(List.of(transferRequestDto, transferRequestDto, transferRequestDto));
+
+        BulkTransferResponseDto response = transferService.bulkTransfer(username, null, bulkTransferRequestDto);
+
+        assertEquals(1, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertEquals(List.of(500, 500, 200), response.getResults().stream().map(BulkTransferItemDto::getCode).toList());
+        assertEquals(List.of(0, 1, 2), response.getResults().stream().map(BulkTransferItemDto::getIndex).toList());
+    }
+
+    @Test
+    void shouldReplayCommittedChunk_whenBulkTransferIsRetriedWithIdempotencyKey() {
+        ReflectionTestUtils.setField(transferService, "bulkTransferChunkSize", 2);
+        card.setNumberHash(hash(card.getNumber()));
+        targetCard.setNumberHash(hash(targetCard.getNumber()));
+        when(cardRepository.lockCardsByUserUsernameAndNumberHashes(eq(username), anyCollection()))
+                .thenReturn(List.of(card, targetCard));
+        when(idempotencyService.partKey("bulk-1", 0)).thenReturn("bulk-1#0");
+        when(idempotencyService.partKey("bulk-1", 1)).thenReturn("bulk-1#1");
+        BulkTransferResponseDto committedChunk = BulkTransferResponseDto.builder()
+                .succeeded(2)
+                .failed(0)
+                .results(List.of(
+                        BulkTransferItemDto.builder().index(0).code(200).transfer(TransferResponseDto.builder().build()).build(),
+                        BulkTransferItemDto.builder().index(1).code(200).transfer(TransferResponseDto.builder().build()).build()))
+                .build();
+        when(idempotencyService.reserve(eq(username), eq("bulk-1#0"), eq(OperationType.TRANSFER), any(),
+                eq(BulkTransferResponseDto.class))).thenReturn(Optional.of(committedChunk));
+
+        BulkTransferRequestDto bulkTransferRequestDto = new BulkTransferRequestDto();
+        bulkTransferRequestDto.setTransfers(List.of(transferRequestDto, transferRequestDto, transferRequestDto));
+
+        BulkTransferResponseDto response = transferService.bulkTransfer(username, "bulk-1", bulkTransferRequestDto);
+
+        assertEquals(3, response.getSucceeded());
+        assertEquals(List.of(0, 1, 2), response.getResults().stream().map(BulkTransferItemDto::getIndex).toList());
+        assertEquals(BigDecimal.valueOf(900L), card.getBalance());
+        verify(cardRepository, times(1)).lockCardsByUserUsernameAndNumberHashes(eq(username), anyCollection());
+        verify(idempotencyService, never()).complete(eq(username), eq("bulk-1#0"), any(), any(), any());
+        verify(idempotencyService).complete(eq(username), eq("bulk-1#1"), eq(OperationType.TRANSFER),
+                eq(List.of(transferRequestDto)), any());
+    }
+
+    private TransferRequestDto bulkItem(Card from, Card to, BigDecimal transferAmount) {
+        TransferRequestDto item = new TransferRequestDto();
+        item.setNumber(from.getNumber());
+        item.setTargetNumber(to.getNumber());
+        item.setAmount(transferAmount);
+        return item;
+    }
+
+    private String hash(String number) {
+        return cardNumberHasher.hash(number);
+    }
+
+    @Test
+    void shouldReturnStoredResponse_whenIdempotencyKeyWasCompleted() {
+        TransferResponseDto storedResponse = TransferResponseDto.builder()
+                .cardId(card.getId())
+                .transferAmount(amount)
+                .build();
+        when(idempotencyService.reserve(username, "key-1", OperationType.TRANSFER, transferRequestDto, TransferResponseDto.class))
+                .thenReturn(Optional.of(storedResponse));
+
+        TransferResponseDto response = transferService.transfer(username, "key-1", transferRequestDto);
+
+        assertSame(storedResponse, response);
+        verifyNoInteractions(cardRepository, cardValidationUtils, transactionRepository);
+        verify(idempotencyService, never()).complete(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldStoreResponse_whenWithdrawalHasIdempotencyKey() {
+        when(cardRepository.findCardByUserUsernameAndNumberHash(username, hash(card.getNumber()))).thenReturn(Optional.of(card));
+
+        WithdrawalResponseDto response = transferService.withdrawal(username, "key-2", withdrawalRequestDto);
+
+        verify(idempotencyService).reserve(username, "key-2", OperationType.WITHDRAWAL, withdrawalRequestDto, WithdrawalResponseDto.class);
+        verify(idempotencyService).complete(username, "key-2", OperationType.WITHDRAWAL, withdrawalRequestDto, response);
+        assertEquals(BigDecimal.valueOf(900L), response.getRemainingBalance());
     }
 }
@@ -1,16 +1,20 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.dto.request.BannedRequestDto;
 import com.example.bankcards.dto.request.RegisterUserRequestDto;
 import com.example.bankcards.exception.RoleNotFoundException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.util.Constants;
+import com.example.bankcards.util.mapper.CardMapper;
 import com.example.bankcards.util.mapper.UserMapper;
 import com.example.bankcards.model.Role;
 import com.example.bankcards.model.User;
+import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.RoleRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.repository.projection.CardSummary;
 import com.example.bankcards.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,6 +43,12 @@ class UserServiceTests {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardMapper cardMapper;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -166,16 +176,37 @@ class UserServiceTests {
         List<User> users = List.of(userEntity);
 
         Page<User> userPage = new PageImpl<>(users, pageRequest, users.size());
+        CardSummary cardSummary = mock(CardSummary.class);
+        when(cardSummary.getUserId()).thenReturn(userId);
+        CardDto cardDto = new CardDto();
+        cardDto.setNumber("**** **** **** 4444");
+
         when(userRepository.findAll(pageRequest)).thenReturn(userPage);
-        when(userMapper.toDto(userEntity)).thenReturn(UserDto.builder().id(userId).username(userEntity.getUsername()).build());
+        when(cardRepository.findCardSummariesByUserIdIn(List.of(userId))).thenReturn(List.of(cardSummary));
+        when(cardMapper.toDto(cardSummary)).thenReturn(cardDto);
+        when(userMapper.toDto(userEntity, List.of(cardDto)))
+                .thenReturn(UserDto.builder().id(userId).username(userEntity.getUsername()).cards(List.of(cardDto)).build());
 
         Page<UserDto> result = userService.findAll(pageRequest);
 
         assertEquals(1, result.getTotalElements());
         assertEquals(userId, result.getContent().get(0).getId());
+        assertEquals(List.of(cardDto), result.getContent().get(0).getCards());
 
         verify(userRepository).findAll(pageRequest);
-        verify(userMapper).toDto(userEntity);
+        verify(cardRepository).findCardSummariesByUserIdIn(List.of(userId));
+        verify(userMapper).toDto(userEntity, List.of(cardDto));
+    }
+
+    @Test
+    void findAll_ShouldNotQueryCards_WhenPageIsEmpty() {
+        PageRequest pageRequest = PageRequest.of(5, 10);
+        when(userRepository.findAll(pageRequest)).thenReturn(Page.empty(pageRequest));
+
+        Page<UserDto> result = userService.findAll(pageRequest);
+
+        assertTrue(result.getContent().isEmpty());
+        verifyNoInteractions(cardRepository);
     }
 
     @Test
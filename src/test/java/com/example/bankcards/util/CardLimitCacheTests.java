@@ -0,0 +1,82 @@
+package com.example.bankcards.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.bankcards.repository.LimitRepository;
+import com.example.bankcards.repository.projection.CardLimits;
+import com.example.bankcards.service.impl.LocalCacheInvalidationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+class CardLimitCacheTests {
+
+    private LimitRepository limitRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private CardLimitCache cardLimitCache;
+    private UUID cardId;
+    private CardLimits limits;
+
+    @BeforeEach
+    void setUp() {
+        limitRepository = mock(LimitRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cardLimitCache = new CardLimitCache(limitRepository, new LocalCacheInvalidationBus(), meterRegistry,
+                100, Duration.ofMinutes(10));
+        cardId = UUID.randomUUID();
+        limits = new CardLimits(BigDecimal.valueOf(300), BigDecimal.valueOf(3400));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testGetLoadsLimitsOnceAndRecordsHitsAndMisses() {
+        when(limitRepository.findCardLimitsByCardId(cardId)).thenReturn(Optional.of(limits));
+
+        assertEquals(Optional.of(limits), cardLimitCache.get(cardId));
+        assertEquals(Optional.of(limits), cardLimitCache.get(cardId));
+
+        verify(limitRepository, times(1)).findCardLimitsByCardId(cardId);
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", CardLimitCache.CACHE_NAME, "result", "hit")
+                .functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", CardLimitCache.CACHE_NAME, "result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testGetDoesNotCacheMissingLimits() {
+        when(limitRepository.findCardLimitsByCardId(cardId)).thenReturn(Optional.empty(), Optional.of(limits));
+
+        assertEquals(Optional.empty(), cardLimitCache.get(cardId));
+        assertEquals(Optional.of(limits), cardLimitCache.get(cardId));
+    }
+
+    @Test
+    void testEvictInsideTransactionWaitsForCommit() {
+        when(limitRepository.findCardLimitsByCardId(cardId)).thenReturn(Optional.of(limits));
+        cardLimitCache.get(cardId);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cardLimitCache.evict(cardId);
+        cardLimitCache.get(cardId);
+        verify(limitRepository, times(1)).findCardLimitsByCardId(cardId);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        cardLimitCache.get(cardId);
+        verify(limitRepository, times(2)).findCardLimitsByCardId(cardId);
+    }
+}
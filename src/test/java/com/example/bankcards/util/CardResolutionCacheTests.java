@@ -0,0 +1,71 @@
+package com.example.bankcards.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.bankcards.model.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.projection.CardResolution;
+import com.example.bankcards.service.impl.LocalCacheInvalidationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+class CardResolutionCacheTests {
+
+    private CardRepository cardRepository;
+    private CardResolutionCache cardResolutionCache;
+    private CardResolution card;
+    private CardResolution otherCard;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository = mock(CardRepository.class);
+        cardResolutionCache = new CardResolutionCache(cardRepository, new LocalCacheInvalidationBus(),
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        UUID userId = UUID.randomUUID();
+        card = new CardResolution(UUID.randomUUID(), userId, "**** **** **** 4444", CardStatus.ACTIVE,
+                LocalDate.now().plusYears(1));
+        otherCard = new CardResolution(UUID.randomUUID(), userId, "**** **** **** 8888", CardStatus.ACTIVE,
+                LocalDate.now().plusYears(1));
+        when(cardRepository.findCardResolutionByUserUsernameAndNumberHash("user", "hash")).thenReturn(Optional.of(card));
+        when(cardRepository.findCardResolutionByUserUsernameAndNumberHash("user", "other-hash")).thenReturn(Optional.of(otherCard));
+    }
+
+    @Test
+    void testGetLoadsCardOnce() {
+        assertEquals(Optional.of(card), cardResolutionCache.get("user", "hash"));
+        assertEquals(Optional.of(card), cardResolutionCache.get("user", "hash"));
+
+        verify(cardRepository, times(1)).findCardResolutionByUserUsernameAndNumberHash("user", "hash");
+        assertEquals(Optional.empty(), cardResolutionCache.get("another-user", "hash"));
+    }
+
+    @Test
+    void testEvictRemovesOnlyEntriesOfThatCard() {
+        cardResolutionCache.get("user", "hash");
+        cardResolutionCache.get("user", "other-hash");
+
+        cardResolutionCache.evict(card.id());
+        cardResolutionCache.get("user", "hash");
+        cardResolutionCache.get("user", "other-hash");
+
+        verify(cardRepository, times(2)).findCardResolutionByUserUsernameAndNumberHash("user", "hash");
+        verify(cardRepository, times(1)).findCardResolutionByUserUsernameAndNumberHash("user", "other-hash");
+    }
+
+    @Test
+    void testIsActiveOnChecksStatusAndExpirationDate() {
+        LocalDate today = LocalDate.now();
+
+        assertTrue(card.isActiveOn(today));
+        assertFalse(card.isActiveOn(card.expirationDate()));
+        assertFalse(new CardResolution(card.id(), card.userId(), card.maskedNumber(), CardStatus.BLOCKED,
+                card.expirationDate()).isActiveOn(today));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.bankcards.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.bankcards.model.Role;
+import com.example.bankcards.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+class JwtAccessTokenUtilsTests {
+
+    private static final String SECRET = "984hg493gh0439rthr0429uruj2309yh937gc763fe87t3f89723gf";
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .username("vlad")
+                .build();
+        user.getRoles().add(Role.builder().name("ROLE_USER").build());
+    }
+
+    @Test
+    void testGetAllClaimsFromTokenReturnsCachedClaims() {
+        JwtAccessTokenUtils jwtAccessTokenUtils = new JwtAccessTokenUtils(SECRET, Duration.ofMinutes(30), 100);
+        String token = jwtAccessTokenUtils.generateAccessToken(user);
+
+        Claims first = jwtAccessTokenUtils.getAllClaimsFromToken(token);
+        Claims second = jwtAccessTokenUtils.getAllClaimsFromToken(token);
+
+        assertSame(first, second);
+        assertEquals("vlad", jwtAccessTokenUtils.getUsername(token));
+        assertEquals(List.of("ROLE_USER"), jwtAccessTokenUtils.getRoles(first));
+    }
+
+    @Test
+    void testGetAllClaimsFromTokenRejectsExpiredToken() throws InterruptedException {
+        JwtAccessTokenUtils jwtAccessTokenUtils = new JwtAccessTokenUtils(SECRET, Duration.ofSeconds(1), 100);
+        String token = jwtAccessTokenUtils.generateAccessToken(user);
+
+        assertEquals("vlad", jwtAccessTokenUtils.getUsername(token));
+        Thread.sleep(1100);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtAccessTokenUtils.getAllClaimsFromToken(token));
+    }
+
+    @Test
+    void testGetAllClaimsFromTokenRejectsTamperedToken() {
+        JwtAccessTokenUtils jwtAccessTokenUtils = new JwtAccessTokenUtils(SECRET, Duration.ofMinutes(30), 100);
+        String token = jwtAccessTokenUtils.generateAccessToken(user);
+        jwtAccessTokenUtils.getAllClaimsFromToken(token);
+
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> jwtAccessTokenUtils.getAllClaimsFromToken(tampered));
+    }
+}
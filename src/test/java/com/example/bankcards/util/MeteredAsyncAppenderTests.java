@@ -0,0 +1,102 @@
+package com.example.bankcards.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class MeteredAsyncAppenderTests {
+
+    private LoggerContext loggerContext;
+    private BlockingAppender blockingAppender;
+    private MeteredAsyncAppender appender;
+
+    @BeforeEach
+    void setUp() {
+        loggerContext = new LoggerContext();
+        loggerContext.setMDCAdapter(new LogbackMDCAdapter());
+
+        blockingAppender = new BlockingAppender();
+        blockingAppender.setContext(loggerContext);
+        blockingAppender.start();
+
+        appender = new MeteredAsyncAppender();
+        appender.setContext(loggerContext);
+        appender.setQueueSize(2);
+        appender.setDiscardingThreshold(2);
+        appender.setNeverBlock(true);
+        appender.addAppender(blockingAppender);
+        appender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        blockingAppender.release.countDown();
+        appender.stop();
+    }
+
+    @Test
+    void testCountsDiscardedAndDroppedEvents() throws InterruptedException {
+        appender.doAppend(event(Level.WARN, "taken by the worker"));
+        assertTrue(blockingAppender.entered.await(5, TimeUnit.SECONDS));
+
+        appender.doAppend(event(Level.WARN, "queued"));
+        appender.doAppend(event(Level.INFO, "below discarding threshold"));
+        appender.doAppend(event(Level.WARN, "queued last"));
+        appender.doAppend(event(Level.ERROR, "queue is full"));
+
+        assertEquals(1, appender.getDiscardedCount());
+        assertEquals(1, appender.getDroppedCount());
+
+        blockingAppender.release.countDown();
+        appender.stop();
+        assertEquals(List.of("taken by the worker", "queued", "queued last"), blockingAppender.messages);
+    }
+
+    @Test
+    void testKeepsWarningsBelowDiscardingThreshold() {
+        blockingAppender.release.countDown();
+
+        appender.doAppend(event(Level.WARN, "first"));
+        appender.doAppend(event(Level.ERROR, "second"));
+        appender.stop();
+
+        assertEquals(0, appender.getDiscardedCount());
+        assertEquals(0, appender.getDroppedCount());
+        assertEquals(List.of("first", "second"), blockingAppender.messages);
+    }
+
+    private ILoggingEvent event(Level level, String message) {
+        return new LoggingEvent(getClass().getName(), loggerContext.getLogger("test"), level, message, null, null);
+    }
+
+    private static class BlockingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(event.getMessage());
+        }
+    }
+}
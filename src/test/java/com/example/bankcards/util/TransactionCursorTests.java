@@ -0,0 +1,40 @@
+package com.example.bankcards.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.bankcards.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+class TransactionCursorTests {
+
+    @Test
+    void testEncodeAndDecodeRoundTrip() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2025, 1, 1, 12, 0, 0, 123456000), UUID.randomUUID());
+
+        String encoded = cursor.encode();
+
+        assertFalse(encoded.contains("="));
+        assertEquals(cursor, TransactionCursor.decode(encoded));
+    }
+
+    @Test
+    void testDecodeMissingCursorReturnsFirstPage() {
+        assertEquals(TransactionCursor.FIRST, TransactionCursor.decode(null));
+        assertEquals(TransactionCursor.FIRST, TransactionCursor.decode(""));
+    }
+
+    @Test
+    void testDecodeInvalidCursor() {
+        String withoutSeparator = Base64.getUrlEncoder().encodeToString("foobar".getBytes(StandardCharsets.UTF_8));
+        String badTimestamp = Base64.getUrlEncoder().encodeToString(("yesterday|" + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(InvalidCursorException.class, () -> TransactionCursor.decode("not a cursor!"));
+        assertThrows(InvalidCursorException.class, () -> TransactionCursor.decode(withoutSeparator));
+        assertThrows(InvalidCursorException.class, () -> TransactionCursor.decode(badTimestamp));
+    }
+}
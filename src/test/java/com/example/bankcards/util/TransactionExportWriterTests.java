@@ -0,0 +1,70 @@
+package com.example.bankcards.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.bankcards.dto.TransactionDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+class TransactionExportWriterTests {
+
+    private TransactionExportWriter transactionExportWriter;
+    private TransactionDto transfer;
+    private TransactionDto withdrawal;
+
+    @BeforeEach
+    void setUp() {
+        transactionExportWriter = new TransactionExportWriter(new ObjectMapper().registerModule(new JavaTimeModule()));
+        transfer = transactionDto("TRANSFER", UUID.randomUUID());
+        withdrawal = transactionDto("WITHDRAWAL", null);
+    }
+
+    @Test
+    void testWriteCsv() throws IOException {
+        String[] lines = write(ExportFormat.CSV).split("\n");
+
+        assertEquals(3, lines.length);
+        assertEquals("id,amount,operationType,operationResult,timestamp,cardId,targetCardId", lines[0]);
+        assertEquals(String.join(",", transfer.getId().toString(), "250.00", "TRANSFER", "SUCCESSFULLY",
+                "2025-01-01 12:00:00", transfer.getCardId().toString(), transfer.getTargetCardId().toString()), lines[1]);
+        assertTrue(lines[2].endsWith("," + withdrawal.getCardId() + ","));
+    }
+
+    @Test
+    void testWriteNdjson() throws IOException {
+        String[] lines = write(ExportFormat.NDJSON).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":\"" + transfer.getId() + "\""));
+        assertTrue(lines[0].contains("\"timestamp\":\"2025-01-01 12:00:00\""));
+        assertTrue(lines[1].contains("\"targetCardId\":null"));
+    }
+
+    private String write(ExportFormat format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        transactionExportWriter.write(Stream.of(transfer, withdrawal), format, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private TransactionDto transactionDto(String operationType, UUID targetCardId) {
+        TransactionDto transactionDto = new TransactionDto();
+        transactionDto.setId(UUID.randomUUID());
+        transactionDto.setAmount(new BigDecimal("250.00"));
+        transactionDto.setOperationType(operationType);
+        transactionDto.setOperationResult("SUCCESSFULLY");
+        transactionDto.setTimestamp(LocalDateTime.of(2025, 1, 1, 12, 0));
+        transactionDto.setCardId(UUID.randomUUID());
+        transactionDto.setTargetCardId(targetCardId);
+        return transactionDto;
+    }
+}
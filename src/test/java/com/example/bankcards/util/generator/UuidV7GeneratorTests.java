@@ -0,0 +1,40 @@
+package com.example.bankcards.util.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+class UuidV7GeneratorTests {
+
+    @Test
+    void testGeneratedIdHasVersionAndVariant() {
+        UUID id = UuidV7Generator.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void testGeneratedIdStartsWithCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        long timestamp = id.getMostSignificantBits() >>> 16;
+
+        assertTrue(timestamp >= before);
+        assertTrue(timestamp <= after + 1);
+    }
+
+    @Test
+    void testGeneratedIdsAreIncreasing() {
+        UUID previous = UuidV7Generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7Generator.next();
+            assertTrue(next.compareTo(previous) > 0);
+            previous = next;
+        }
+    }
+}